@@ -0,0 +1,34 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks matching the first argument, all of them by default, with the allocation profiler and
+ * writes the results as JSON to the second argument, benchmarks/results/latest.json by default. Comparing
+ * that file with benchmarks/results/baseline.json shows the effect of a change.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : "ramo.klevis.benchmarks.*";
+        final String result = args.length > 1 ? args[1] : "benchmarks/results/latest.json";
+        new File(result).getAbsoluteFile().getParentFile().mkdirs();
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.deeplearning4j.util.ModelSerializer;
+import ramo.klevis.CnnInferencePool;
+import ramo.klevis.Configuration;
+import ramo.klevis.ConvolutionalNeuralNetwork;
+import ramo.klevis.IdxReader;
+import ramo.klevis.LabeledImage;
+import ramo.klevis.LenetInference;
+import ramo.klevis.MnistDataset;
+import ramo.klevis.Prediction;
+import ramo.klevis.QuantizedLenet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inference of the trained convolutional network on test images, one image at a time and in batches, through the
+ * CNN_ENGINE of the configuration and through the ND4J, Java and 8 bit engines directly. A batch invocation
+ * counts one operation per image, so all results are per image.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CnnPredictionBenchmark {
+
+    private static final int IMAGES = 256;
+
+    private ConvolutionalNeuralNetwork convolutionalNeuralNetwork;
+    private CnnInferencePool nd4j;
+    private LenetInference java;
+    private QuantizedLenet int8;
+    private float[] scaledBatchOf64;
+    private float[][] images;
+    private float[][] batchOf16;
+    private float[][] batchOf64;
+    private LabeledImage labeledImage;
+
+    @Setup
+    public void setUp() throws IOException {
+        convolutionalNeuralNetwork = ConvolutionalNeuralNetwork.getInstance();
+        convolutionalNeuralNetwork.init();
+        final MnistDataset testDataset = IdxReader.loadTestDataset(IMAGES);
+        images = new float[testDataset.size()][IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < images.length; i++) {
+            for (int j = 0; j < IdxReader.VECTOR_DIMENSION; j++) {
+                images[i][j] = testDataset.pixel(i, j);
+            }
+        }
+        batchOf16 = Arrays.copyOf(images, 16);
+        batchOf64 = Arrays.copyOf(images, 64);
+        final double[] firstPixels = new double[IdxReader.VECTOR_DIMENSION];
+        for (int j = 0; j < firstPixels.length; j++) {
+            firstPixels[j] = images[0][j];
+        }
+        labeledImage = new LabeledImage(testDataset.label(0), firstPixels);
+        final File model = new File(Configuration.getInstance().props.getProperty("TRAINED_MODEL_FILE"));
+        nd4j = new CnnInferencePool(ModelSerializer.restoreMultiLayerNetwork(model));
+        java = LenetInference.load(model);
+        scaledBatchOf64 = new float[64 * IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < IdxReader.VECTOR_DIMENSION; j++) {
+                scaledBatchOf64[i * IdxReader.VECTOR_DIMENSION + j] = images[i][j] / 255f;
+            }
+        }
+        int8 = QuantizedLenet.quantize(java, scaledBatchOf64, 64);
+    }
+
+    @Benchmark
+    public Prediction predictPixels() {
+        return convolutionalNeuralNetwork.predict(images[0]);
+    }
+
+    @Benchmark
+    public int predictLabeledImage() {
+        return convolutionalNeuralNetwork.predict(labeledImage);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public List<Prediction> predictBatchOf16() {
+        return convolutionalNeuralNetwork.predictBatch(batchOf16);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<Prediction> predictBatchOf64() {
+        return convolutionalNeuralNetwork.predictBatch(batchOf64);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMAGES)
+    public List<Prediction> predictBatchOf256() {
+        return convolutionalNeuralNetwork.predictBatch(images);
+    }
+
+    @Benchmark
+    public Prediction predictPixelsNd4j() {
+        return nd4j.predict(images[0]);
+    }
+
+    @Benchmark
+    public Prediction predictPixelsJava() {
+        return java.predict(images[0]);
+    }
+
+    @Benchmark
+    public Prediction predictPixelsInt8() {
+        return int8.predict(images[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<Prediction> predictBatchOf64Nd4j() {
+        return nd4j.predictScaled(scaledBatchOf64, 64);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<Prediction> predictBatchOf64Java() {
+        return java.predictScaled(scaledBatchOf64, 64);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<Prediction> predictBatchOf64Int8() {
+        return int8.predictScaled(scaledBatchOf64, 64);
+    }
+}
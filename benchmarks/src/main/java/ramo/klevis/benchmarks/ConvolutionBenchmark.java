@@ -0,0 +1,112 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.Convolution;
+import ramo.klevis.FlatConvolution;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The convolution operators on a random square gray image with a 3x3 or 5x5 kernel, the 2D ones of
+ * {@link Convolution} and the flat ones of {@link FlatConvolution} writing into a reused plane.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvolutionBenchmark {
+
+    @Param({"512"})
+    public int size;
+
+    @Param({"3", "5"})
+    public int kernelSize;
+
+    private double[][] image;
+    private int[] packedImage;
+    private double[][] kernel;
+    private double[] flatImage;
+    private double[] flatKernel;
+    private double[][] separableKernel;
+    private double[] scratch;
+    private double[] output;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        image = new double[size][size];
+        packedImage = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                final int gray = random.nextInt(256);
+                image[y][x] = gray;
+                packedImage[y * size + x] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+            }
+        }
+        kernel = new double[kernelSize][kernelSize];
+        for (int y = 0; y < kernelSize; y++) {
+            for (int x = 0; x < kernelSize; x++) {
+                kernel[y][x] = random.nextDouble() - 0.5;
+            }
+        }
+        flatImage = new double[size * size];
+        for (int y = 0; y < size; y++) {
+            System.arraycopy(image[y], 0, flatImage, y * size, size);
+        }
+        flatKernel = FlatConvolution.flatten(kernel);
+        // a binomial smoothing kernel of the same size, separable by construction
+        final double[] binomial = new double[kernelSize];
+        binomial[0] = 1;
+        for (int i = 1; i < kernelSize; i++) {
+            binomial[i] = binomial[i - 1] * (kernelSize - i) / i;
+        }
+        separableKernel = new double[][]{binomial, binomial};
+        scratch = new double[size * size];
+        output = new double[size * size];
+    }
+
+    @Benchmark
+    public double[][] convolution2D() {
+        return Convolution.convolution2D(image, size, size, kernel, kernelSize, kernelSize);
+    }
+
+    @Benchmark
+    public double[][] convolution2DPadded() {
+        return Convolution.convolution2DPadded(image, size, size, kernel, kernelSize, kernelSize);
+    }
+
+    @Benchmark
+    public int[] convolutionImage() {
+        return Convolution.convolution_image(packedImage, size, size, kernel, kernelSize, kernelSize, 1, 0);
+    }
+
+    @Benchmark
+    public double[] flatPadded() {
+        FlatConvolution.convolvePadded(flatImage, size, size, flatKernel, kernelSize, kernelSize, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] flatSeparablePadded() {
+        FlatConvolution.convolveSeparablePadded(flatImage, size, size, separableKernel[0], separableKernel[1],
+                scratch, output);
+        return output;
+    }
+}
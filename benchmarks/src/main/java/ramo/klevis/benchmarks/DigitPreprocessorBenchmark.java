@@ -0,0 +1,83 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.DigitPreprocessor;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preprocessing of drawn canvases into the 28x28 network input, with and without centering. The canvases hold
+ * strokes of the width the draw area uses, at random places and sizes, so the centering stage sees a different
+ * bounding box for every image.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigitPreprocessorBenchmark {
+
+    private static final int CANVAS_WIDTH = 600;
+    private static final int CANVAS_HEIGHT = 550;
+    private static final int CANVASES = 32;
+
+    @Param({"false", "true"})
+    public boolean center;
+
+    private BufferedImage[] canvases;
+    private DigitPreprocessor preprocessor;
+    private final float[] pixels = new float[DigitPreprocessor.SIZE * DigitPreprocessor.SIZE];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        preprocessor = new DigitPreprocessor(center);
+        final Random random = new Random(42);
+        canvases = new BufferedImage[CANVASES];
+        for (int i = 0; i < CANVASES; i++) {
+            final BufferedImage canvas = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            final Graphics2D graphics = canvas.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+            graphics.setColor(Color.BLACK);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setStroke(new BasicStroke(10));
+            final int width = 80 + random.nextInt(200);
+            final int height = 150 + random.nextInt(250);
+            final int x = random.nextInt(CANVAS_WIDTH - width);
+            final int y = random.nextInt(CANVAS_HEIGHT - height);
+            // a loop and a tail, roughly a 9
+            graphics.drawOval(x, y, width, height / 2);
+            graphics.drawLine(x + width, y + height / 4, x + width / 2, y + height);
+            graphics.dispose();
+            canvases[i] = canvas;
+        }
+    }
+
+    @Benchmark
+    public float[] process() {
+        next = (next + 1) % CANVASES;
+        return preprocessor.process(canvases[next], pixels);
+    }
+}
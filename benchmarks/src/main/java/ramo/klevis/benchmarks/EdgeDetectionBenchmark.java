@@ -0,0 +1,87 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.Configuration;
+import ramo.klevis.EdgeDetection;
+import ramo.klevis.ImageRasters;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The edge detection pipeline on the configured input image: reading the raster into channels, and convolving
+ * every channel with the Sobel filter and summing the channels, or reading the summed channels and convolving
+ * that single plane.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeDetectionBenchmark {
+
+    private static final double[][] FILTER_SOBEL = {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}};
+
+    private BufferedImage image;
+    private int width;
+    private int height;
+    private double[][] channels;
+    private double[][] channelSum;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = ImageIO.read(new File(Configuration.getInstance().props.getProperty("INPUT_IMAGE")));
+        width = image.getWidth();
+        height = image.getHeight();
+        channels = EdgeDetection.transformImageToArray(image);
+        channelSum = new double[][]{ImageRasters.readChannelSum(image)};
+    }
+
+    @Benchmark
+    public double[][] readChannels() {
+        return EdgeDetection.transformImageToArray(image);
+    }
+
+    @Benchmark
+    public double[] convolveChannels() {
+        return EdgeDetection.applyConvolution(width, height, channels, FILTER_SOBEL);
+    }
+
+    @Benchmark
+    public double[] pipeline() {
+        return EdgeDetection.applyConvolution(width, height, EdgeDetection.transformImageToArray(image), FILTER_SOBEL);
+    }
+
+    @Benchmark
+    public double[] readChannelSum() {
+        return ImageRasters.readChannelSum(image);
+    }
+
+    @Benchmark
+    public double[] convolveChannelSum() {
+        return EdgeDetection.applyConvolution(width, height, channelSum, FILTER_SOBEL);
+    }
+
+    @Benchmark
+    public double[] fusedPipeline() {
+        return EdgeDetection.applyConvolution(width, height, new double[][]{ImageRasters.readChannelSum(image)},
+                FILTER_SOBEL);
+    }
+}
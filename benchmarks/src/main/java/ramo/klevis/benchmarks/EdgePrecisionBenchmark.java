@@ -0,0 +1,63 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.Configuration;
+import ramo.klevis.EdgeDetector;
+import ramo.klevis.Precision;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobel edges of the configured input image in every {@link Precision}: decoding the raster once, and the
+ * convolution into the edge image.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgePrecisionBenchmark {
+
+    private static final double[][] FILTER_SOBEL = {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}};
+
+    @Param({"DOUBLE", "FLOAT", "FIXED"})
+    public Precision precision;
+
+    private BufferedImage image;
+    private EdgeDetector detector;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = ImageIO.read(new File(Configuration.getInstance().props.getProperty("INPUT_IMAGE")));
+        detector = new EdgeDetector(image, precision);
+    }
+
+    @Benchmark
+    public EdgeDetector decode() {
+        return new EdgeDetector(image, precision);
+    }
+
+    @Benchmark
+    public BufferedImage detect() {
+        return detector.detect(FILTER_SOBEL);
+    }
+}
@@ -0,0 +1,47 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.IdxReader;
+import ramo.klevis.LabeledImage;
+import ramo.klevis.MnistDataset;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of the MNIST test data set, as labeled images and as a flat data set.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdxReaderBenchmark {
+
+    @Param({"1000", "10000"})
+    public int amount;
+
+    @Benchmark
+    public List<LabeledImage> loadData() {
+        return IdxReader.loadTestData(amount);
+    }
+
+    @Benchmark
+    public MnistDataset loadDataset() {
+        return IdxReader.loadTestDataset(amount);
+    }
+}
@@ -0,0 +1,54 @@
+package ramo.klevis.benchmarks;
+
+import org.apache.spark.ml.linalg.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.LabeledImage;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of a labeled image and the mean normalization of its features.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LabeledImageBenchmark {
+
+    private double[] pixels;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        pixels = new double[28 * 28];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    public LabeledImage construct() {
+        return new LabeledImage(7, pixels);
+    }
+
+    @Benchmark
+    public Vector constructAndNormalize() {
+        return new LabeledImage(7, pixels).getFEATURES();
+    }
+}
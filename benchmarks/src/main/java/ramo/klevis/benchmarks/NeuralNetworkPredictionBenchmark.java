@@ -0,0 +1,62 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ramo.klevis.IdxReader;
+import ramo.klevis.LabeledImage;
+import ramo.klevis.NeuralNetwork;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inference of the trained Spark perceptron on test images, for a single image and for a list of images
+ * predicted one after the other. Results are per image.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NeuralNetworkPredictionBenchmark {
+
+    private static final int IMAGES = 256;
+
+    private NeuralNetwork neuralNetwork;
+    private List<LabeledImage> labeledImages;
+
+    @Setup
+    public void setUp() {
+        neuralNetwork = NeuralNetwork.getInstance();
+        neuralNetwork.init();
+        labeledImages = IdxReader.loadTestData(IMAGES);
+    }
+
+    @Benchmark
+    public LabeledImage predict() {
+        return neuralNetwork.predict(labeledImages.get(0));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMAGES)
+    public void predictAll(Blackhole blackhole) {
+        for (LabeledImage labeledImage : labeledImages) {
+            blackhole.consume(neuralNetwork.predict(labeledImage));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ramo.klevis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ramo.klevis.Configuration;
+import ramo.klevis.EdgeDetection;
+import ramo.klevis.FlatConvolution;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The edge detection filters on the configured input image, with the scalar loops and with the Vector API.
+ * Both run the same code; the vector fork adds the incubator module, so {@link FlatConvolution} picks the vector
+ * backend there and the scalar one in the other fork. Needs the DigitRecognizer jar built on JDK 17 or newer.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VectorConvolutionBenchmark {
+
+    private static final double[][] FILTER_VERTICAL = {{1, 0, -1}, {1, 0, -1}, {1, 0, -1}};
+    private static final double[][] FILTER_HORIZONTAL = {{1, 1, 1}, {0, 0, 0}, {-1, -1, -1}};
+    private static final double[][] FILTER_SOBEL = {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}};
+
+    @Param({"vertical", "horizontal", "sobel"})
+    public String filterName;
+
+    private double[][] filter;
+    private int width;
+    private int height;
+    private double[][] channels;
+
+    @Setup
+    public void setUp() throws IOException {
+        final BufferedImage image = ImageIO.read(new File(Configuration.getInstance().props.getProperty("INPUT_IMAGE")));
+        width = image.getWidth();
+        height = image.getHeight();
+        channels = EdgeDetection.transformImageToArray(image);
+        switch (filterName) {
+            case "vertical":
+                filter = FILTER_VERTICAL;
+                break;
+            case "horizontal":
+                filter = FILTER_HORIZONTAL;
+                break;
+            default:
+                filter = FILTER_SOBEL;
+        }
+    }
+
+    @Benchmark
+    @Fork(1)
+    public double[] scalar() {
+        if (FlatConvolution.isVectorized()) {
+            throw new IllegalStateException("The scalar fork runs on the Vector API");
+        }
+        return EdgeDetection.applyConvolution(width, height, channels, filter);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public double[] vector() {
+        if (!FlatConvolution.isVectorized()) {
+            throw new IllegalStateException("Vector API not available, build DigitRecognizer on JDK 17 or newer");
+        }
+        return EdgeDetection.applyConvolution(width, height, channels, filter);
+    }
+}
@@ -1,9 +1,9 @@
 package ramo.klevis;
 
-import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.earlystopping.scorecalc.ScoreCalculator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,16 +17,17 @@ import org.slf4j.LoggerFactory;
 public class AccuracyCalculator implements ScoreCalculator<MultiLayerNetwork> {
 
     private static final Logger logger = LoggerFactory.getLogger(AccuracyCalculator.class);
-    private final MnistDataSetIterator dataSetIterator;
+    private final DataSetIterator dataSetIterator;
     private int accuracyCount = 0;
 
     /* Method to calculate accuracy score */
-    public AccuracyCalculator(final MnistDataSetIterator dataSetIterator) {
+    public AccuracyCalculator(final DataSetIterator dataSetIterator) {
         this.dataSetIterator = dataSetIterator;
     }
 
     @Override
     public double calculateScore(final MultiLayerNetwork network) {
+        dataSetIterator.reset();
         final Evaluation evaluate = network.evaluate(dataSetIterator);
         final double accuracy = evaluate.accuracy();
         logger.error("Accuracy " + accuracyCount++ + " " + accuracy);
@@ -0,0 +1,51 @@
+package ramo.klevis;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Forward pass of the trained convolutional network, safe to call from many threads. The pixels of the callers
+ * are never written.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public interface CnnInference {
+
+    /**
+     * @param pixels 784 pixels between 0 and 255
+     * @return prediction of the image
+     */
+    Prediction predict(double[] pixels);
+
+    /**
+     * @param pixels 784 pixels between 0 and 255
+     * @return prediction of the image
+     */
+    Prediction predict(float[] pixels);
+
+    /**
+     * @param input     pixels scaled to [0, 1], 784 per image one image after the other
+     * @param batchSize amount of images
+     * @return predictions in the order of the images
+     */
+    List<Prediction> predictScaled(float[] input, int batchSize);
+
+    /**
+     * Predicts the same made up image again and again, so the JIT compiles the forward pass before the first
+     * image of a user is served.
+     *
+     * @param predictions amount of predictions, 0 for none
+     */
+    default void warmUp(int predictions) {
+        final float[] pixels = new float[IdxReader.VECTOR_DIMENSION];
+        final Random random = new Random(pixels.length);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(4) == 0 ? random.nextInt(256) : 0;
+        }
+        for (int i = 0; i < predictions; i++) {
+            predict(pixels);
+        }
+    }
+}
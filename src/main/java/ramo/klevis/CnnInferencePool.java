@@ -0,0 +1,91 @@
+package ramo.klevis;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the forward pass of a trained network from many threads at once. MultiLayerNetwork keeps the
+ * activations of the last call in its layers, so every thread gets its own replica. The replicas share the
+ * parameter array of the trained network, which the forward pass only reads. Pixels are scaled into a per
+ * thread scratch buffer, the arrays of the callers are never written.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class CnnInferencePool implements CnnInference {
+
+    private final MultiLayerNetwork model;
+    private final ThreadLocal<MultiLayerNetwork> replicas;
+    private final ThreadLocal<float[]> scratch;
+
+    public CnnInferencePool(MultiLayerNetwork model) {
+        this.model = model;
+        this.replicas = ThreadLocal.withInitial(this::newReplica);
+        this.scratch = ThreadLocal.withInitial(() -> new float[IdxReader.VECTOR_DIMENSION]);
+    }
+
+    private MultiLayerNetwork newReplica() {
+        final MultiLayerNetwork replica = new MultiLayerNetwork(model.getLayerWiseConfigurations().clone());
+        // the parameters are used as they are, not cloned
+        replica.init(model.params(), false);
+        return replica;
+    }
+
+    /**
+     * @param pixels 784 pixels between 0 and 255
+     * @return prediction of the image
+     */
+    @Override
+    public Prediction predict(final double[] pixels) {
+        final float[] input = scratch.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            input[i] = (float) (pixels[i] / 255d);
+        }
+        return predictScaled(input, 1).get(0);
+    }
+
+    /**
+     * @param pixels 784 pixels between 0 and 255
+     * @return prediction of the image
+     */
+    @Override
+    public Prediction predict(final float[] pixels) {
+        final float[] input = scratch.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            input[i] = pixels[i] / 255f;
+        }
+        return predictScaled(input, 1).get(0);
+    }
+
+    /**
+     * Predicts a batch of images with a single forward pass on the replica of the calling thread.
+     *
+     * @param input     pixels scaled to [0, 1], 784 per image one image after the other
+     * @param batchSize amount of images
+     * @return predictions in the order of the images
+     */
+    @Override
+    public List<Prediction> predictScaled(final float[] input, final int batchSize) {
+        final List<Prediction> predictions = new ArrayList<>(batchSize);
+        if (batchSize == 0) {
+            return predictions;
+        }
+        // Nd4j copies the input, so the scratch buffer can be reused right away
+        final INDArray features = Nd4j.create(input, new int[]{batchSize, IdxReader.VECTOR_DIMENSION});
+        final INDArray output = replicas.get().output(features);
+        final int outcomes = output.columns();
+        for (int i = 0; i < batchSize; i++) {
+            final float[] probabilities = new float[outcomes];
+            for (int j = 0; j < outcomes; j++) {
+                probabilities[j] = output.getFloat(i, j);
+            }
+            predictions.add(Prediction.of(probabilities));
+        }
+        return predictions;
+    }
+}
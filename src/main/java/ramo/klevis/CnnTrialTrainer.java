@@ -0,0 +1,71 @@
+package ramo.klevis;
+
+import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+import java.io.IOException;
+
+/**
+ * Trials of the LeNet network of {@link ConvolutionalNeuralNetwork}, a round is an epoch. The IDX files are mapped
+ * once and every trial iterates over the same mapping, in its own shuffled order and minibatches of its batch
+ * size.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class CnnTrialTrainer implements TrialTrainer {
+
+    private static final int TEST_BATCH_SIZE = 1000;
+    private static final long SEED = 12345;
+
+    private final MappedIdxReader trainData;
+    private final MappedIdxReader testData;
+    private final int trainImages;
+    private final int testImages;
+
+    /**
+     * @param trainImages amount of images from the start of the training files
+     * @param testImages  amount of images from the start of the test files
+     */
+    public CnnTrialTrainer(int trainImages, int testImages) throws IOException {
+        this.trainData = MappedIdxReader.open(IdxReader.INPUT_IMAGE_PATH, IdxReader.INPUT_LABEL_PATH);
+        this.testData = MappedIdxReader.open(IdxReader.INPUT_IMAGE_PATH_TEST_DATA,
+                IdxReader.INPUT_LABEL_PATH_TEST_DATA);
+        this.trainImages = Math.min(trainImages, trainData.size());
+        this.testImages = Math.min(testImages, testData.size());
+    }
+
+    @Override
+    public Trial start(HyperParameters parameters) {
+        final MultiLayerNetwork model = new MultiLayerNetwork(ConvolutionalNeuralNetwork.configuration(parameters));
+        model.init();
+        final IdxDataSetIterator train = new IdxDataSetIterator(trainData, parameters.getBatchSize(), trainImages,
+                true, SEED, 2);
+        final IdxDataSetIterator test = new IdxDataSetIterator(testData, TEST_BATCH_SIZE, testImages, false, SEED, 2);
+        return new Trial() {
+            @Override
+            public double train(int rounds) {
+                for (int epoch = 0; epoch < rounds; epoch++) {
+                    train.reset();
+                    model.fit(train);
+                }
+                test.reset();
+                final Evaluation evaluation = model.evaluate(test);
+                return evaluation.accuracy();
+            }
+
+            @Override
+            public long parameterBytes() {
+                return (long) model.numParams() * Float.BYTES;
+            }
+
+            @Override
+            public void close() {
+                train.close();
+                test.close();
+                model.clear();
+            }
+        };
+    }
+}
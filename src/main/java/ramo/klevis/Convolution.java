@@ -1,7 +1,5 @@
 package ramo.klevis;
 
-import java.awt.*;
-
 /**
  * Convolution class holds the code for applying the convolution operator.
  *
@@ -71,6 +69,17 @@ public class Convolution extends Thread {
         int smallWidth = width - kernelWidth + 1;
         int smallHeight = height - kernelHeight + 1;
         double[][] output = new double[smallWidth][smallHeight];
+        final RowConvolution vector = FlatConvolution.vector();
+        if (vector != null) {
+            // output[i] adds kernel row k[ki] slid along input[i + ki], in the order of singlePixelConvolution
+            for (int i = 0; i < smallWidth; ++i) {
+                for (int ki = 0; ki < kernelWidth; ++ki) {
+                    vector.convolveRowAdd(input[i + ki], 0, 0, kernel[ki], kernelHeight, 1,
+                            output[i], 0, smallHeight);
+                }
+            }
+            return output;
+        }
         for (int i = 0; i < smallWidth; ++i) {
             for (int j = 0; j < smallHeight; ++j) {
                 output[i][j] = 0;
@@ -199,7 +208,7 @@ public class Convolution extends Thread {
             } else {
                 grey = (int) Math.round(greys[i]);
             }
-            result[i] = (new Color(grey, grey, grey)).getRGB();
+            result[i] = ImageRasters.gray(grey);
         }
         return result;
     }
@@ -286,7 +295,7 @@ public class Convolution extends Thread {
         double[] output;
         for (int j = 0; j < height; ++j) {
             for (int i = 0; i < width; ++i) {
-                input2D[i][j] = (new Color(input[j * width + i])).getRed();
+                input2D[i][j] = (input[j * width + i] >> 16) & 0xFF;
             }
         }
         output = convolutionDoublePadded(input2D, width, height,
@@ -298,7 +307,7 @@ public class Convolution extends Thread {
             if (outputInts[i] > 255) outputInts[i] = 255;
             if (outputInts[i] < 0) outputInts[i] = 0;
             int g = outputInts[i];
-            outputInts[i] = (new Color(g, g, g)).getRGB();
+            outputInts[i] = ImageRasters.gray(g);
         }
         return outputInts;
     }
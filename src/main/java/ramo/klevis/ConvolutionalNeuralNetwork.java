@@ -1,6 +1,5 @@
 package ramo.klevis;
 
-import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
 import org.deeplearning4j.earlystopping.EarlyStoppingResult;
 import org.deeplearning4j.earlystopping.saver.LocalFileModelSaver;
@@ -8,6 +7,7 @@ import org.deeplearning4j.earlystopping.termination.MaxEpochsTerminationConditio
 import org.deeplearning4j.earlystopping.termination.MaxTimeIterationTerminationCondition;
 import org.deeplearning4j.earlystopping.trainer.EarlyStoppingTrainer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.LearningRatePolicy;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.Updater;
@@ -20,13 +20,15 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.activations.Activation;
-import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,8 +45,17 @@ public class ConvolutionalNeuralNetwork implements NNObserver {
 
     private static final String OUT_DIR = config.props.getProperty("OUT_DIR");
     private static final String TRAINED_MODEL_FILE = config.props.getProperty("TRAINED_MODEL_FILE");
+    private static final String ENGINE = config.props.getProperty("CNN_ENGINE", "ND4J").trim();
+    private static final String QUANTIZED_MODEL_FILE = config.props.getProperty("QUANTIZED_MODEL_FILE",
+            "resources/cnnTrainedModels/bestModel.int8").trim();
+    private static final String SNAPSHOT_FILE = config.props.getProperty("CNN_SNAPSHOT_FILE",
+            "resources/cnnTrainedModels/bestModel.snapshot").trim();
+    private static final int WARMUP_PREDICTIONS = Integer.parseInt(
+            config.props.getProperty("WARMUP_PREDICTIONS", "1000").trim());
+    private static final int EPOCHS = Integer.parseInt(config.props.getProperty("CNN_EPOCHS", "20").trim());
     private static final Logger LOGGER = LoggerFactory.getLogger(ConvolutionalNeuralNetwork.class);
     private MultiLayerNetwork preTrainedModel;
+    private volatile CnnInference inferencePool;
     private static ConvolutionalNeuralNetwork instance = null;
     private String name;
     private String observerState;
@@ -53,41 +64,167 @@ public class ConvolutionalNeuralNetwork implements NNObserver {
     protected ConvolutionalNeuralNetwork() {
     }
 
-    public static ConvolutionalNeuralNetwork getInstance() {
+    public static synchronized ConvolutionalNeuralNetwork getInstance() {
         if (ConvolutionalNeuralNetwork.instance == null) {
             ConvolutionalNeuralNetwork.instance = new ConvolutionalNeuralNetwork();
         }
         return ConvolutionalNeuralNetwork.instance;
     }
 
+    /**
+     * Loads the trained model for the CNN_ENGINE, JAVA for {@link LenetInference} without ND4J, INT8 for the
+     * {@link QuantizedLenet} written by {@link LenetQuantizer} or ND4J for the restored MultiLayerNetwork. The JAVA
+     * engine maps the {@link ModelSnapshot} of CNN_SNAPSHOT_FILE when {@link SnapshotConverter} wrote one, unless
+     * TRAINED_MODEL_FILE changed after the snapshot was written. The forward pass is then warmed up with WARMUP_PREDICTIONS predictions.
+     */
     public void init() throws IOException {
-        preTrainedModel = ModelSerializer.restoreMultiLayerNetwork(new File(TRAINED_MODEL_FILE));
+        final long start = System.nanoTime();
+        if ("ND4J".equalsIgnoreCase(ENGINE)) {
+            preTrainedModel = ModelSerializer.restoreMultiLayerNetwork(new File(TRAINED_MODEL_FILE));
+            inferencePool = new CnnInferencePool(preTrainedModel);
+        } else if ("INT8".equalsIgnoreCase(ENGINE)) {
+            inferencePool = QuantizedLenet.load(new File(QUANTIZED_MODEL_FILE));
+        } else if (ModelSnapshot.isUpToDate(new File(SNAPSHOT_FILE), new File(TRAINED_MODEL_FILE))) {
+            inferencePool = LenetInference.load(ModelSnapshot.map(new File(SNAPSHOT_FILE)));
+        } else {
+            if (new File(SNAPSHOT_FILE).isFile()) {
+                LOGGER.warn(TRAINED_MODEL_FILE + " is newer than the snapshot " + SNAPSHOT_FILE
+                        + ", loading the model instead, run SnapshotConverter to update the snapshot");
+            }
+            inferencePool = LenetInference.load(new File(TRAINED_MODEL_FILE));
+        }
+        final long loaded = System.nanoTime();
+        inferencePool.warmUp(WARMUP_PREDICTIONS);
+        LOGGER.info("Loaded the " + ENGINE + " network in " + (loaded - start) / 1000000 + " ms, "
+                + WARMUP_PREDICTIONS + " warm up predictions took " + (System.nanoTime() - loaded) / 1000000 + " ms");
     }
 
+    /**
+     * Safe to call from many threads, the pixels of the image are left unchanged.
+     */
     public int predict(LabeledImage labeledImage) {
-        double[] pixels = labeledImage.getPIXELS();
-        for (int i = 0; i < pixels.length; i++) {
-            pixels[i] = pixels[i] / 255d;
+        return inferencePool.predict(labeledImage.getPIXELS()).getLabel();
+    }
+
+    /**
+     * Safe to call from many threads, the pixels are left unchanged.
+     *
+     * @param pixels 784 pixels between 0 and 255
+     * @return predicted digit and probabilities
+     */
+    public Prediction predict(float[] pixels) {
+        return inferencePool.predict(pixels);
+    }
+
+    /**
+     * @param dataset data set holding the raw pixels
+     * @param index   row of the image to predict
+     * @return predicted digit
+     */
+    public int predict(MnistDataset dataset, int index) {
+        final float[] pixels = new float[dataset.imageSize()];
+        dataset.scaledPixels(index, pixels, 0);
+        return inferencePool.predictScaled(pixels, 1).get(0).getLabel();
+    }
+
+    /**
+     * Predicts all images with a single forward pass.
+     *
+     * @param labeledImages images with pixels between 0 and 255, left unchanged
+     * @return predictions in the order of the images
+     */
+    public List<Prediction> predictBatch(List<LabeledImage> labeledImages) {
+        final int batchSize = labeledImages.size();
+        final float[] input = new float[batchSize * IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < batchSize; i++) {
+            final double[] pixels = labeledImages.get(i).getPIXELS();
+            final int offset = i * IdxReader.VECTOR_DIMENSION;
+            for (int j = 0; j < IdxReader.VECTOR_DIMENSION; j++) {
+                input[offset + j] = (float) (pixels[j] / 255d);
+            }
         }
-        final int[] predict = preTrainedModel.predict(Nd4j.create(pixels));
-        return predict[0];
+        return predictBatch(input, batchSize);
+    }
+
+    /**
+     * Predicts all images with a single forward pass.
+     *
+     * @param images images of 784 pixels between 0 and 255, left unchanged
+     * @return predictions in the order of the images
+     */
+    public List<Prediction> predictBatch(float[][] images) {
+        final float[] input = new float[images.length * IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < images.length; i++) {
+            final int offset = i * IdxReader.VECTOR_DIMENSION;
+            for (int j = 0; j < IdxReader.VECTOR_DIMENSION; j++) {
+                input[offset + j] = images[i][j] / 255f;
+            }
+        }
+        return predictBatch(input, images.length);
+    }
+
+    private List<Prediction> predictBatch(float[] input, int batchSize) {
+        return inferencePool.predictScaled(input, batchSize);
     }
 
     public void train(Integer trainDataSize, Integer testDataSize) throws IOException {
+        MultiLayerConfiguration conf = configuration(HyperParameters.LENET);
+
+        EarlyStoppingResult result;
+        // closing stops the prefetch threads, which would otherwise wait on full queues after training
+        try (IdxDataSetIterator mnistTrain = IdxDataSetIterator.open(IdxReader.INPUT_IMAGE_PATH,
+                IdxReader.INPUT_LABEL_PATH, HyperParameters.LENET.getBatchSize(), trainDataSize, true, 12345);
+             IdxDataSetIterator mnistTest = IdxDataSetIterator.open(IdxReader.INPUT_IMAGE_PATH_TEST_DATA,
+                     IdxReader.INPUT_LABEL_PATH_TEST_DATA, testDataSize, testDataSize, false, 12345)) {
+            EarlyStoppingConfiguration esConf = new EarlyStoppingConfiguration.Builder()
+                    .epochTerminationConditions(new MaxEpochsTerminationCondition(EPOCHS))
+                    .iterationTerminationConditions(new MaxTimeIterationTerminationCondition(75, TimeUnit.MINUTES))
+                    .scoreCalculator(new AccuracyCalculator(mnistTest))
+                    .evaluateEveryNEpochs(1)
+                    .modelSaver(new LocalFileModelSaver(OUT_DIR))
+                    .build();
+
+            EarlyStoppingTrainer trainer = new EarlyStoppingTrainer(esConf, conf, mnistTrain);
+            result = trainer.fit();
+        }
+
+        LOGGER.info("Termination reason: " + result.getTerminationReason());
+        LOGGER.info("Termination details: " + result.getTerminationDetails());
+        LOGGER.info("Total epochs: " + result.getTotalEpochs());
+        LOGGER.info("Best epoch number: " + result.getBestModelEpoch());
+        LOGGER.info("Score at best epoch: " + result.getBestModelScore());
+    }
+
+    /**
+     * @return configuration of the LeNet network with the dense layers and the learning rate of the hyperparameters
+     */
+    public static MultiLayerConfiguration configuration(HyperParameters parameters) {
+        return configuration(parameters, 0, Collections.<Integer, Double>emptyMap());
+    }
+
+    /**
+     * @param l2                   L2 regularization of the weights, none with 0
+     * @param learningRateSchedule learning rates from the iteration of their key on, overriding the learning rate
+     *                             of the hyperparameters unless empty
+     * @return configuration of the LeNet network with the dense layers and the learning rate of the hyperparameters
+     */
+    public static MultiLayerConfiguration configuration(HyperParameters parameters, double l2,
+                                                        Map<Integer, Double> learningRateSchedule) {
         int nChannels = 1; // Number of input channels
         int outputNum = 10; // The number of possible outcomes
-        int batchSize = 64; // Test batch size
-        int nEpochs = 20; // Number of training epochs
         int iterations = 1; // Number of training iterations
         int seed = 123;
 
-        MnistDataSetIterator mnistTrain = new MnistDataSetIterator(batchSize, trainDataSize, false, true, true, 12345);
-
-        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+        NeuralNetConfiguration.Builder network = new NeuralNetConfiguration.Builder()
                 .seed(seed)
                 .iterations(iterations)
-                .regularization(false)
-                .learningRate(0.01)
+                .regularization(l2 > 0).l2(l2)
+                .learningRate(parameters.getLearningRate());
+        if (!learningRateSchedule.isEmpty()) {
+            network.learningRateDecayPolicy(LearningRatePolicy.Schedule)
+                    .learningRateSchedule(learningRateSchedule);
+        }
+        NeuralNetConfiguration.ListBuilder builder = network
                 .weightInit(WeightInit.XAVIER)
                 .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
                 .updater(Updater.NESTEROVS)
@@ -111,37 +248,19 @@ public class ConvolutionalNeuralNetwork implements NNObserver {
                 .layer(3, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
                         .kernelSize(2, 2)
                         .stride(2, 2)
-                        .build())
-                .layer(4, new DenseLayer.Builder().activation(Activation.RELU)
-                        .nIn(800)
-                        .nOut(128).build())
-                .layer(5, new DenseLayer.Builder().activation(Activation.RELU)
-                        .nIn(128)
-                        .nOut(64).build())
-                .layer(6, new OutputLayer.Builder(LossFunctions.LossFunction.NEGATIVELOGLIKELIHOOD)
-                        .nOut(outputNum)
-                        .activation(Activation.SOFTMAX)
-                        .build())
-                .setInputType(InputType.convolutionalFlat(28, 28, 1))
+                        .build());
+        int[] layers = parameters.layers(800);
+        for (int i = 1; i < layers.length - 1; i++) {
+            builder.layer(3 + i, new DenseLayer.Builder().activation(Activation.RELU)
+                    .nIn(layers[i - 1])
+                    .nOut(layers[i]).build());
+        }
+        builder.layer(layers.length + 2, new OutputLayer.Builder(LossFunctions.LossFunction.NEGATIVELOGLIKELIHOOD)
+                .nOut(outputNum)
+                .activation(Activation.SOFTMAX)
+                .build());
+        return builder.setInputType(InputType.convolutionalFlat(28, 28, 1))
                 .backprop(true).pretrain(false).build();
-
-        EarlyStoppingConfiguration esConf = new EarlyStoppingConfiguration.Builder()
-                .epochTerminationConditions(new MaxEpochsTerminationCondition(nEpochs))
-                .iterationTerminationConditions(new MaxTimeIterationTerminationCondition(75, TimeUnit.MINUTES))
-                .scoreCalculator(new AccuracyCalculator(
-                        new MnistDataSetIterator(testDataSize, testDataSize, false, false, true, 12345)))
-                .evaluateEveryNEpochs(1)
-                .modelSaver(new LocalFileModelSaver(OUT_DIR))
-                .build();
-
-        EarlyStoppingTrainer trainer = new EarlyStoppingTrainer(esConf, conf, mnistTrain);
-        EarlyStoppingResult result = trainer.fit();
-
-        LOGGER.info("Termination reason: " + result.getTerminationReason());
-        LOGGER.info("Termination details: " + result.getTerminationDetails());
-        LOGGER.info("Total epochs: " + result.getTotalEpochs());
-        LOGGER.info("Best epoch number: " + result.getBestModelEpoch());
-        LOGGER.info("Score at best epoch: " + result.getBestModelScore());
     }
 
     public static void main(String[] args) throws Exception {
@@ -154,6 +273,11 @@ public class ConvolutionalNeuralNetwork implements NNObserver {
 
     }
 
+    @Override
+    public int update(float[] pixels) {
+        return predict(pixels).getLabel();
+    }
+
     public UISubject getSubject() {
         return subject;
     }
@@ -0,0 +1,403 @@
+package ramo.klevis;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Turns a drawn digit into the 28x28 input of the networks. The pixels are read straight from the int array of
+ * packed RGB images, other images are drawn into a reused canvas first. They are converted to ink intensity (255
+ * for black, 0 for white) and downsampled with a separable Lanczos3 kernel. Large shrink factors first sum square
+ * bins of ink, so the kernel itself never shrinks by much more than 2 and needs a handful of taps instead of a
+ * hundred. All buffers are kept between calls, so processing an image of an already seen size creates no
+ * garbage. An instance is not thread-safe, use one per thread.
+ * <p>
+ * With centering on, the digit is normalized the way MNIST was built: the ink bounding box is scaled to fit
+ * a 20x20 box keeping its aspect ratio, and placed in the 28x28 field so that its center of mass is in the
+ * middle. A first pass over the raster only finds the blank rows and the bounding box; the center of mass is
+ * summed up while the ink of the box is binned, so every pixel of the box is converted to ink once.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class DigitPreprocessor {
+
+    public static final int SIZE = 28;
+    // MNIST digits are fitted into a box of this size before they are centered
+    public static final int DIGIT_SIZE = 20;
+    private static final int LANCZOS_LOBES = 3;
+    private static final int WHITE = 3 * 255;
+
+    private final boolean center;
+    private BufferedImage canvas;
+    private int[] copy = new int[0];
+    private boolean[] inkRows = new boolean[0];
+    // ink of the rows of one row of bins per column of the region, and the same weighted by the row in the band
+    private int[] band = new int[0];
+    private int[] bandY = new int[0];
+    private float[] binned = new float[0];
+    private float[] horizontal = new float[0];
+    private final Kernel columns = new Kernel();
+    private final Kernel rows = new Kernel();
+
+    // pixels of the last image, pixel (x, y) at base + y * stride + x
+    private int[] argb;
+    private int base;
+    private int stride;
+    // ink bounding box of the last image scanned, in canvas pixels
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+    // binning of the last region shrunk, and the moments of its ink relative to its top left corner
+    private int factor;
+    private int binnedWidth;
+    private int binnedHeight;
+    private long inkSum;
+    private long inkSumX;
+    private long inkSumY;
+
+    /**
+     * Precomputed contributions of the source pixels to every output pixel along one axis, clipped to the
+     * source. The arrays are reused when the kernel is rebuilt for a different size.
+     */
+    private static final class Kernel {
+        private int sourceSize = -1;
+        private int targetSize;
+        private double scale;
+        private int taps;
+        private final int[] first = new int[SIZE];
+        private final int[] count = new int[SIZE];
+        private float[] weights = new float[0];
+
+        /**
+         * @param scale source pixels per target pixel, the last source pixel may be only partly covered
+         */
+        private void build(int sourceSize, int targetSize, double scale) {
+            if (this.sourceSize == sourceSize && this.targetSize == targetSize && this.scale == scale) {
+                return;
+            }
+            this.sourceSize = sourceSize;
+            this.targetSize = targetSize;
+            this.scale = scale;
+            // when shrinking the kernel is stretched, so it covers all source pixels
+            final double step = Math.max(1d, scale);
+            final double support = LANCZOS_LOBES * step;
+            this.taps = (int) Math.ceil(support * 2) + 1;
+            if (weights.length < targetSize * taps) {
+                weights = new float[targetSize * taps];
+            }
+            for (int target = 0; target < targetSize; target++) {
+                final double center = (target + 0.5) * scale - 0.5;
+                final int start = Math.max(0, (int) Math.floor(center - support) + 1);
+                final int end = Math.min(sourceSize, start + taps);
+                first[target] = start;
+                count[target] = end - start;
+                double sum = 0;
+                for (int source = start; source < end; source++) {
+                    final double weight = lanczos((source - center) / step);
+                    weights[target * taps + source - start] = (float) weight;
+                    sum += weight;
+                }
+                for (int tap = 0; tap < end - start; tap++) {
+                    weights[target * taps + tap] /= sum;
+                }
+            }
+        }
+
+        private static double lanczos(final double x) {
+            if (x == 0) {
+                return 1;
+            }
+            if (x <= -LANCZOS_LOBES || x >= LANCZOS_LOBES) {
+                return 0;
+            }
+            final double pi = Math.PI * x;
+            return LANCZOS_LOBES * Math.sin(pi) * Math.sin(pi / LANCZOS_LOBES) / (pi * pi);
+        }
+    }
+
+    public DigitPreprocessor() {
+        this(false);
+    }
+
+    /**
+     * @param center whether the digit is fitted and centered like the MNIST digits
+     */
+    public DigitPreprocessor(boolean center) {
+        this.center = center;
+    }
+
+    /**
+     * @param image  drawn digit, black on white
+     * @param target destination of the 784 ink intensities between 0 and 255, row by row
+     * @return the target array
+     */
+    public float[] process(final Image image, final float[] target) {
+        final int width = image.getWidth(null);
+        final int height = image.getHeight(null);
+        raster(image, width, height);
+        scan(width, height);
+        if (!center) {
+            shrink(0, 0, width, height, SIZE, SIZE, false);
+            resample(SIZE, SIZE, target, 0, 0);
+            return target;
+        }
+        Arrays.fill(target, 0, SIZE * SIZE, 0f);
+        if (bottom < 0) {
+            // nothing drawn
+            return target;
+        }
+        final int boxWidth = right - left + 1;
+        final int boxHeight = bottom - top + 1;
+        final double scale = (double) DIGIT_SIZE / Math.max(boxWidth, boxHeight);
+        final int digitWidth = Math.max(1, (int) Math.round(boxWidth * scale));
+        final int digitHeight = Math.max(1, (int) Math.round(boxHeight * scale));
+        shrink(left, top, boxWidth, boxHeight, digitWidth, digitHeight, true);
+        // center of mass in the pixels of the scaled digit, then shifted to the middle of the field
+        final double massX = ((double) inkSumX / inkSum + 0.5) * digitWidth / boxWidth - 0.5;
+        final double massY = ((double) inkSumY / inkSum + 0.5) * digitHeight / boxHeight - 0.5;
+        final int offsetX = clamp((int) Math.round((SIZE - 1) / 2d - massX), SIZE - digitWidth);
+        final int offsetY = clamp((int) Math.round((SIZE - 1) / 2d - massY), SIZE - digitHeight);
+        resample(digitWidth, digitHeight, target, offsetX, offsetY);
+        return target;
+    }
+
+    private static int clamp(final int offset, final int max) {
+        return offset < 0 ? 0 : offset > max ? max : offset;
+    }
+
+    private void raster(final Image image, final int width, final int height) {
+        BufferedImage bufferedImage = image instanceof BufferedImage ? (BufferedImage) image : null;
+        if (bufferedImage == null || (bufferedImage.getType() != BufferedImage.TYPE_INT_RGB
+                && bufferedImage.getType() != BufferedImage.TYPE_INT_ARGB)) {
+            // any other image is drawn once into a reused canvas
+            if (canvas == null || canvas.getWidth() != width || canvas.getHeight() != height) {
+                canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            final Graphics2D graphics = canvas.createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+            bufferedImage = canvas;
+        }
+        final WritableRaster raster = bufferedImage.getRaster();
+        if (raster.getDataBuffer() instanceof DataBufferInt
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+            // the pixels are read where they are stored, without copying the whole canvas first
+            argb = ((DataBufferInt) raster.getDataBuffer()).getData();
+            base = raster.getDataBuffer().getOffset();
+            stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            return;
+        }
+        // a sub image shares the array of its parent at an offset, its pixels are copied in bulk
+        if (copy.length < width * height) {
+            copy = new int[width * height];
+        }
+        raster.getDataElements(0, 0, width, height, copy);
+        argb = copy;
+        base = 0;
+        stride = width;
+    }
+
+    /**
+     * Finds the rows holding ink and the ink bounding box, without converting any pixel.
+     */
+    private void scan(final int width, final int height) {
+        if (inkRows.length < height) {
+            inkRows = new boolean[height];
+        }
+        left = width;
+        top = height;
+        right = -1;
+        bottom = -1;
+        for (int y = 0; y < height; y++) {
+            final int row = base + y * stride;
+            // fast path for the background, which is most of the canvas: a row is blank when all its pixels
+            // are white, which a plain and over the row tells without branching per pixel
+            int and = 0xFFFFFF;
+            for (int x = 0; x < width; x++) {
+                and &= argb[row + x];
+            }
+            inkRows[y] = (and & 0xFFFFFF) != 0xFFFFFF;
+            if (!inkRows[y]) {
+                continue;
+            }
+            int rowLeft = 0;
+            while ((argb[row + rowLeft] & 0xFFFFFF) == 0xFFFFFF) {
+                rowLeft++;
+            }
+            int rowRight = width - 1;
+            while ((argb[row + rowRight] & 0xFFFFFF) == 0xFFFFFF) {
+                rowRight--;
+            }
+            left = Math.min(left, rowLeft);
+            right = Math.max(right, rowRight);
+            top = Math.min(top, y);
+            bottom = y;
+        }
+    }
+
+    private static int channelSum(final int pixel) {
+        return ((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF);
+    }
+
+    /**
+     * Bins the ink of the region starting at (x, y) and builds the kernels down to targetWidth x targetHeight.
+     *
+     * @param moments whether the moments of the ink are summed up as well
+     */
+    private void shrink(final int x, final int y, final int width, final int height, final int targetWidth,
+                        final int targetHeight, final boolean moments) {
+        factor = Math.max(1, (int) Math.min((double) width / targetWidth, (double) height / targetHeight) / 2);
+        binnedWidth = (width + factor - 1) / factor;
+        binnedHeight = (height + factor - 1) / factor;
+        bin(x, y, width, height, moments);
+        columns.build(binnedWidth, targetWidth, (double) width / factor / targetWidth);
+        rows.build(binnedHeight, targetHeight, (double) height / factor / targetHeight);
+    }
+
+    /**
+     * Downsamples the bins of the last region shrunk to targetWidth x targetHeight ink intensities written at
+     * (offsetX, offsetY) of the SIZE x SIZE target.
+     */
+    private void resample(final int targetWidth, final int targetHeight, final float[] target, final int offsetX,
+                          final int offsetY) {
+        if (horizontal.length < binnedHeight * targetWidth) {
+            horizontal = new float[binnedHeight * targetWidth];
+        }
+        for (int row = 0; row < binnedHeight; row++) {
+            for (int column = 0; column < targetWidth; column++) {
+                horizontal[row * targetWidth + column] = apply(columns, column, binned, row * binnedWidth, 1);
+            }
+        }
+        // resampling is linear, so the ink sums of the bins are resampled and only scaled at the end
+        final float divisor = 3f * factor * factor;
+        for (int row = 0; row < targetHeight; row++) {
+            for (int column = 0; column < targetWidth; column++) {
+                final float value = apply(rows, row, horizontal, column, targetWidth) / divisor;
+                target[(offsetY + row) * SIZE + offsetX + column] = value < 0 ? 0 : value > 255 ? 255 : value;
+            }
+        }
+    }
+
+    /**
+     * Sums the ink of factor x factor bins of the region. Blank rows and the parts of bins reaching past the
+     * region hold no ink and are skipped. The rows of a row of bins are first summed per column into a band,
+     * in loops over arrays indexed from 0 that C2 compiles to vector instructions.
+     */
+    private void bin(final int x, final int y, final int width, final int height, final boolean moments) {
+        if (binned.length < binnedWidth * binnedHeight) {
+            binned = new float[binnedWidth * binnedHeight];
+        }
+        if (band.length < width) {
+            band = new int[width];
+            bandY = new int[width];
+        }
+        inkSum = 0;
+        inkSumX = 0;
+        inkSumY = 0;
+        final int fullBins = width / factor;
+        for (int binRow = 0; binRow < binnedHeight; binRow++) {
+            final int out = binRow * binnedWidth;
+            Arrays.fill(binned, out, out + binnedWidth, 0f);
+            final int first = binRow * factor;
+            final int end = Math.min(height, first + factor);
+            boolean ink = false;
+            for (int sourceRow = first; sourceRow < end; sourceRow++) {
+                if (!inkRows[y + sourceRow]) {
+                    continue;
+                }
+                if (!ink) {
+                    Arrays.fill(band, 0, width, 0);
+                    Arrays.fill(bandY, 0, width, 0);
+                    ink = true;
+                }
+                final int row = base + (y + sourceRow) * stride + x;
+                if (moments) {
+                    addInk(row, width, sourceRow - first);
+                } else {
+                    addInk(row, width);
+                }
+            }
+            if (!ink) {
+                continue;
+            }
+            int column = 0;
+            for (int bin = 0; bin < fullBins; bin++) {
+                int sum = 0;
+                for (int pixel = 0; pixel < factor; pixel++) {
+                    sum += band[column++];
+                }
+                binned[out + bin] = sum;
+            }
+            if (column < width) {
+                int sum = 0;
+                while (column < width) {
+                    sum += band[column++];
+                }
+                binned[out + fullBins] = sum;
+            }
+            if (moments) {
+                for (int i = 0; i < width; i++) {
+                    inkSum += band[i];
+                    inkSumX += (long) band[i] * i;
+                    inkSumY += bandY[i] + (long) band[i] * first;
+                }
+            }
+        }
+    }
+
+    private void addInk(final int row, final int width) {
+        final int[] pixels = argb;
+        final int[] sums = band;
+        for (int i = 0; i < width; i++) {
+            sums[i] += WHITE - channelSum(pixels[row + i]);
+        }
+    }
+
+    /**
+     * Also adds the ink weighted by its row within the band, which fits an int for the few rows of a band.
+     */
+    private void addInk(final int row, final int width, final int y) {
+        final int[] pixels = argb;
+        final int[] sums = band;
+        final int[] sumsY = bandY;
+        for (int i = 0; i < width; i++) {
+            final int ink = WHITE - channelSum(pixels[row + i]);
+            sums[i] += ink;
+            sumsY[i] += ink * y;
+        }
+    }
+
+    private static float apply(final Kernel kernel, final int target, final float[] source,
+                               final int offset, final int stride) {
+        final float[] weights = kernel.weights;
+        final int count = kernel.count[target];
+        final int weightOffset = target * kernel.taps;
+        int index = offset + kernel.first[target] * stride;
+        // independent sums keep the multiply-adds from waiting on each other
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int tap = 0;
+        for (; tap + 3 < count; tap += 4) {
+            sum0 += weights[weightOffset + tap] * source[index];
+            sum1 += weights[weightOffset + tap + 1] * source[index + stride];
+            sum2 += weights[weightOffset + tap + 2] * source[index + 2 * stride];
+            sum3 += weights[weightOffset + tap + 3] * source[index + 3 * stride];
+            index += 4 * stride;
+        }
+        for (; tap < count; tap++) {
+            sum0 += weights[weightOffset + tap] * source[index];
+            index += stride;
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+}
@@ -1,10 +1,11 @@
 package ramo.klevis;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Class that detects sober, vertical and horizontal edges.
@@ -21,88 +22,96 @@ public class EdgeDetection {
     private static final double[][] FILTER_SOBEL = {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}};
     private static final Configuration config = Configuration.getInstance();
     private static final String INPUT_IMAGE = config.props.getProperty("INPUT_IMAGE");
+    private static final boolean FUSED_CHANNELS = Boolean.parseBoolean(config.props.getProperty("EDGE_FUSED_CHANNELS", "true").trim());
+    public static final Precision PRECISION = Precision.parse(config.props.getProperty("EDGE_PRECISION", "FIXED"));
     private static int count = 1;
 
     private enum filterType {
-        SOBEL,
-        HORIZONTAL,
-        VERTICAL
+        SOBEL(FILTER_SOBEL),
+        HORIZONTAL(FILTER_HORIZONTAL),
+        VERTICAL(FILTER_VERTICAL);
+
+        private final double[][] filter;
+
+        filterType(double[][] filter) {
+            this.filter = filter;
+        }
     }
-    ;
 
     public static void main(String[] args) throws IOException {
-        detectEdges(filterType.SOBEL);
-        detectEdges(filterType.HORIZONTAL);
-        detectEdges(filterType.VERTICAL);
+        // the image is decoded once and its channels are shared by the filters
+        final EdgeDetector detector = new EdgeDetector(ImageIO.read(new File(INPUT_IMAGE)), PRECISION);
+        for (filterType filter : filterType.values()) {
+            writeEdges(detector.detect(filter.filter));
+        }
     }
 
-    private static void detectEdges(filterType filter) throws IOException {
-        final BufferedImage bufferedImage = ImageIO.read(new File(INPUT_IMAGE));
-        final double[][][] image = transformImageToArray(bufferedImage);
-        double[][] finalConv;
-
-        switch (filter) {
-            case SOBEL:
-                finalConv = applyConvolution(bufferedImage.getWidth(), bufferedImage.getHeight(), image, FILTER_SOBEL);
-                break;
-            case HORIZONTAL:
-                finalConv = applyConvolution(bufferedImage.getWidth(), bufferedImage.getHeight(), image, FILTER_HORIZONTAL);
-                break;
-            case VERTICAL:
-                finalConv = applyConvolution(bufferedImage.getWidth(), bufferedImage.getHeight(), image, FILTER_VERTICAL);
-                break;
-            default:
-                return;
+    /**
+     * @return the filters of this class by their lower case names, in the order main applies them
+     */
+    static Map<String, double[][]> filters() {
+        final Map<String, double[][]> filters = new LinkedHashMap<>();
+        for (filterType filter : filterType.values()) {
+            filters.put(filter.name().toLowerCase(), filter.filter);
         }
-        reCreateOriginalImageFromMatrix(bufferedImage, finalConv);
+        return filters;
     }
 
+    /**
+     * @return red, green and blue channel of the image, each a flat plane row by row
+     */
+    public static double[][] transformImageToArray(BufferedImage bufferedImage) {
+        return ImageRasters.readChannels(bufferedImage);
+    }
 
-    private static double[][][] transformImageToArray(BufferedImage bufferedImage) {
-        final int width = bufferedImage.getWidth();
-        final int height = bufferedImage.getHeight();
-        return transformImageToArray(bufferedImage, width, height);
+    /**
+     * The planes to convolve with {@link #applyConvolution}: with EDGE_FUSED_CHANNELS the single plane of red +
+     * green + blue, summed while the raster is decoded, otherwise the three channels. Convolution is linear, so
+     * convolving the sum is convolving the channels and adding them, with a third of the work and memory. The
+     * doubles are the same as long as no intermediate value gets rounded, which holds for integer pixels and
+     * kernels whose separated column and row are small integers or halves, like all filters of this class.
+     */
+    public static double[][] transformImageToPlanes(BufferedImage bufferedImage) {
+        return FUSED_CHANNELS ? new double[][]{ImageRasters.readChannelSum(bufferedImage)}
+                : transformImageToArray(bufferedImage);
     }
 
-    private static double[][] applyConvolution(int width, int height, double[][][] image, double[][] filter) {
-        final Convolution convolution = new Convolution();
-        final double[][] redConv = convolution.convolutionType2(image[0], height, width, filter, 3, 3, 1);
-        final double[][] greenConv = convolution.convolutionType2(image[1], height, width, filter, 3, 3, 1);
-        final double[][] blueConv = convolution.convolutionType2(image[2], height, width, filter, 3, 3, 1);
-        double[][] finalConv = new double[redConv.length][redConv[0].length];
-        for (int i = 0; i < redConv.length; i++) {
-            for (int j = 0; j < redConv[i].length; j++) {
-                finalConv[i][j] = redConv[i][j] + greenConv[i][j] + blueConv[i][j];
-            }
+    /**
+     * Convolves every channel with the filter and sums the channels, in row tiles on the convolution pool.
+     * Separable filters, like all three of this class, are applied as a column and a row pass, which gives the
+     * same values for integer pixels.
+     *
+     * @return flat plane of the summed convolutions, row by row
+     */
+    public static double[] applyConvolution(int width, int height, double[][] image, double[][] filter) {
+        final double[] kernel = FlatConvolution.flatten(filter);
+        final int kernelWidth = filter[0].length;
+        final int kernelHeight = filter.length;
+        final double[][] separated = FlatConvolution.separate(kernel, kernelWidth, kernelHeight);
+        final double[] finalConv = new double[width * height];
+        if (separated != null) {
+            ParallelConvolution.convolveSeparablePadded(image, width, height, separated[0], separated[1], finalConv);
+        } else {
+            ParallelConvolution.convolvePadded(image, width, height, kernel, kernelWidth, kernelHeight, finalConv);
         }
         return finalConv;
     }
 
-    private static double[][][] transformImageToArray(BufferedImage bufferedImage, int width, int height) {
-        double[][][] image = new double[3][height][width];
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                final Color color = new Color(bufferedImage.getRGB(j, i));
-                image[0][i][j] = color.getRed();
-                image[1][i][j] = color.getGreen();
-                image[2][i][j] = color.getBlue();
-            }
-        }
-        return image;
+    private static void writeEdges(BufferedImage edges) throws IOException {
+        final File outputFile = new File("edges" + count++ + ".png");
+        ImageIO.write(edges, "png", outputFile);
     }
 
-    private static void reCreateOriginalImageFromMatrix(BufferedImage originalImage, double[][] imageRGB) throws IOException {
-        final BufferedImage writeBackImage = new BufferedImage(originalImage.getWidth(), originalImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-        for (int i = 0; i < imageRGB.length; i++) {
-            for (int j = 0; j < imageRGB[i].length; j++) {
-                final Color color = new Color(fixOutOfRangeRGBValues(imageRGB[i][j]),
-                        fixOutOfRangeRGBValues(imageRGB[i][j]),
-                        fixOutOfRangeRGBValues(imageRGB[i][j]));
-                writeBackImage.setRGB(j, i, color.getRGB());
-            }
+    /**
+     * @param imageRGB summed convolution of {@link #applyConvolution}
+     * @return gray image of the edge strength, the absolute value cut at 255 and truncated
+     */
+    public static BufferedImage toEdgeImage(double[] imageRGB, int width, int height) {
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = ImageRasters.gray(fixOutOfRangeRGBValues(imageRGB[i]));
         }
-        final File outputFile = new File("edges" + count++ + ".png");
-        ImageIO.write(writeBackImage, "png", outputFile);
+        return ImageRasters.toImage(pixels, width, height);
     }
 
     private static int fixOutOfRangeRGBValues(double value) {
@@ -0,0 +1,259 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Edge detection of every image of a directory with all filters, for batches like scanned forms. Each image is
+ * decoded once, in EDGE_PRECISION, and shared by the filters; the edges of a filter are encoded to
+ * &lt;output directory&gt;/&lt;image name&gt;-&lt;filter&gt;.png.
+ * <p>
+ * Decoding and filtering an image is one task on a pool of EDGE_BATCH_THREADS threads, encoding the result of a
+ * filter another one, so the images move through decode, filter and encode on different threads at the same
+ * time. At most two images per thread are in flight, which bounds the memory however big the directory is.
+ * <p>
+ * Usage: EdgeDetectionBatch &lt;input directory&gt; &lt;output directory&gt; [name=k00,k01,...;k10,k11,...]...
+ * where every further argument adds a custom kernel, rows separated by semicolons.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class EdgeDetectionBatch {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(EdgeDetectionBatch.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final int THREADS = batchThreads();
+    private static final int IMAGES_IN_FLIGHT_PER_THREAD = 2;
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private final Map<String, double[][]> filters;
+    private final int threads;
+    private final Precision precision;
+
+    public EdgeDetectionBatch(Map<String, double[][]> filters, int threads, Precision precision) {
+        if (filters.isEmpty()) {
+            throw new IllegalArgumentException("Expected at least one filter");
+        }
+        this.filters = new LinkedHashMap<>(filters);
+        this.threads = threads;
+        this.precision = precision;
+    }
+
+    private static int batchThreads() {
+        final int threads = Integer.parseInt(config.props.getProperty("EDGE_BATCH_THREADS", "0").trim());
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: EdgeDetectionBatch <input directory> <output directory>"
+                    + " [name=k00,k01,...;k10,k11,...]...");
+            System.exit(1);
+        }
+        final Map<String, double[][]> filters = EdgeDetection.filters();
+        for (int i = 2; i < args.length; i++) {
+            final int separator = args[i].indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=kernel, got " + args[i]);
+            }
+            filters.put(args[i].substring(0, separator), parseKernel(args[i].substring(separator + 1)));
+        }
+        new EdgeDetectionBatch(filters, THREADS, EdgeDetection.PRECISION).run(new File(args[0]), new File(args[1]));
+    }
+
+    /**
+     * @param kernel rows separated by semicolons, values of a row by commas
+     * @return the kernel as {@link EdgeDetection#applyConvolution} takes it
+     */
+    public static double[][] parseKernel(String kernel) {
+        final String[] rows = kernel.split(";");
+        final double[][] parsed = new double[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            final String[] values = rows[i].trim().split("\\s*,\\s*");
+            parsed[i] = new double[values.length];
+            for (int j = 0; j < values.length; j++) {
+                parsed[i][j] = Double.parseDouble(values[j]);
+            }
+            if (parsed[i].length != parsed[0].length) {
+                throw new IllegalArgumentException("Kernel rows differ in length: " + kernel);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Detects the edges of every file of the input directory that ImageIO can read; other files are logged and
+     * skipped.
+     */
+    public Summary run(File inputDirectory, File outputDirectory) throws IOException, InterruptedException {
+        final File[] files = inputDirectory.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("Not a directory: " + inputDirectory);
+        }
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + outputDirectory);
+        }
+        Arrays.sort(files);
+        LOGGER.info("Detecting edges of " + files.length + " files with " + filters.keySet() + " in "
+                + precision + " on " + threads + " threads");
+
+        final Summary summary = new Summary(filters.size());
+        final int permits = threads * IMAGES_IN_FLIGHT_PER_THREAD;
+        final Semaphore inFlight = new Semaphore(permits);
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final long start = System.nanoTime();
+        try {
+            for (File file : files) {
+                inFlight.acquire();
+                pool.execute(() -> detectEdges(file, outputDirectory, pool, inFlight, summary));
+            }
+            // every image gives its permit back once its last filter is encoded
+            inFlight.acquire(permits);
+        } finally {
+            pool.shutdown();
+        }
+        summary.nanos = System.nanoTime() - start;
+        LOGGER.info(summary.toString());
+        return summary;
+    }
+
+    private void detectEdges(File file, File outputDirectory, ExecutorService pool, Semaphore inFlight,
+                             Summary summary) {
+        final BufferedImage image;
+        final EdgeDetector detector;
+        boolean decoded = false;
+        try {
+            image = ImageIO.read(file);
+            if (image == null) {
+                LOGGER.warn("Skipping " + file + ", not an image");
+                summary.skipped.incrementAndGet();
+                return;
+            }
+            detector = new EdgeDetector(image, precision);
+            decoded = true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Cannot read " + file, e);
+            summary.failed.incrementAndGet();
+            return;
+        } finally {
+            if (!decoded) {
+                inFlight.release();
+            }
+        }
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final String name = baseName(file);
+        final AtomicInteger remaining = new AtomicInteger(filters.size());
+        final AtomicInteger failures = new AtomicInteger();
+        for (Map.Entry<String, double[][]> filter : filters.entrySet()) {
+            final File output = new File(outputDirectory, name + "-" + filter.getKey() + ".png");
+            boolean queued = false;
+            try {
+                final BufferedImage edges = detector.detect(filter.getValue());
+                pool.execute(() -> {
+                    try {
+                        ImageIO.write(edges, "png", output);
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.error("Cannot write " + output, e);
+                        failures.incrementAndGet();
+                    } finally {
+                        finish(remaining, failures, width * height, inFlight, summary);
+                    }
+                });
+                queued = true;
+            } catch (RuntimeException e) {
+                LOGGER.error("Cannot apply " + filter.getKey() + " to " + file, e);
+                failures.incrementAndGet();
+            } finally {
+                // the permit of the image has to come back whatever fails, or run waits forever
+                if (!queued) {
+                    finish(remaining, failures, width * height, inFlight, summary);
+                }
+            }
+        }
+    }
+
+    private static void finish(AtomicInteger remaining, AtomicInteger failures, long pixels, Semaphore inFlight,
+                               Summary summary) {
+        if (remaining.decrementAndGet() > 0) {
+            return;
+        }
+        if (failures.get() > 0) {
+            summary.failed.incrementAndGet();
+        } else {
+            summary.pixels.addAndGet(pixels);
+            if (summary.images.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+                LOGGER.info("Detected edges of " + summary.images.get() + " images");
+            }
+        }
+        inFlight.release();
+    }
+
+    private static String baseName(File file) {
+        final String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * Counts of a batch run and its throughput.
+     */
+    public static final class Summary {
+
+        private final int filters;
+        private final AtomicInteger images = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong pixels = new AtomicLong();
+        private long nanos;
+
+        private Summary(int filters) {
+            this.filters = filters;
+        }
+
+        public int getImages() {
+            return images.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getPixels() {
+            return pixels.get();
+        }
+
+        /**
+         * @return megapixels of input images per second, each through all filters
+         */
+        public double getMegapixelsPerSecond() {
+            return nanos == 0 ? 0 : pixels.get() * 1e3 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Detected edges of %d images (%.1f megapixels) with %d filters in %.1f s:"
+                            + " %.2f MP/s, %.2f filtered MP/s; %d skipped, %d failed",
+                    images.get(), pixels.get() / 1e6, filters, nanos / 1e9, getMegapixelsPerSecond(),
+                    getMegapixelsPerSecond() * filters, skipped.get(), failed.get());
+        }
+    }
+}
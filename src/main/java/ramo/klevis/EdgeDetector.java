@@ -0,0 +1,96 @@
+package ramo.klevis;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Edge detection of one image with any number of filters, in a selectable {@link Precision}. The image is decoded
+ * once, in DOUBLE into the planes of {@link EdgeDetection#transformImageToPlanes} and otherwise into a single plane
+ * of the summed channels, and every filter convolves the decoded plane. Edge images come out as from
+ * {@link EdgeDetection#toEdgeImage}; for kernels of integers, like the filters of {@link EdgeDetection}, all
+ * precisions give the same pixels, because every sum is exact.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class EdgeDetector {
+
+    private final Precision precision;
+    private final int width;
+    private final int height;
+    private double[][] planes;
+    private float[] floats;
+    private short[] shorts;
+
+    public EdgeDetector(BufferedImage image, Precision precision) {
+        this.precision = precision;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        switch (precision) {
+            case FLOAT:
+                floats = new float[width * height];
+                ImageRasters.readChannelSum(image, floats);
+                break;
+            case FIXED:
+                shorts = new short[width * height];
+                ImageRasters.readChannelSum(image, shorts);
+                break;
+            default:
+                planes = EdgeDetection.transformImageToPlanes(image);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param filter kernel as {@link EdgeDetection#applyConvolution} takes it
+     * @return gray image of the edge strength
+     */
+    public BufferedImage detect(double[][] filter) {
+        final int kernelWidth = filter[0].length;
+        final int kernelHeight = filter.length;
+        if (precision == Precision.DOUBLE) {
+            return EdgeDetection.toEdgeImage(EdgeDetection.applyConvolution(width, height, planes, filter),
+                    width, height);
+        }
+        final double[] kernel = FlatConvolution.flatten(filter);
+        final int[] pixels = new int[width * height];
+        final int[] fixedKernel = precision == Precision.FIXED ? FixedPointConvolution.toFixedPoint(kernel) : null;
+        if (fixedKernel != null) {
+            final int[] sums = new int[width * height];
+            FixedPointConvolution.convolvePadded(shorts, width, height, fixedKernel, kernelWidth, kernelHeight, sums);
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = ImageRasters.gray(Math.min(Math.abs(sums[i]), 255));
+            }
+        } else {
+            final float[] sums = new float[width * height];
+            FloatConvolution.convolvePadded(floatPlane(), width, height, FloatConvolution.toFloats(kernel),
+                    kernelWidth, kernelHeight, sums);
+            for (int i = 0; i < pixels.length; i++) {
+                // like EdgeDetection: the absolute value, cut at 255 and truncated
+                final float value = Math.abs(sums[i]);
+                pixels[i] = ImageRasters.gray(value > 255 ? 255 : (int) value);
+            }
+        }
+        return ImageRasters.toImage(pixels, width, height);
+    }
+
+    /**
+     * @return the float plane, widened once from the short plane for kernels that are not integers
+     */
+    private float[] floatPlane() {
+        if (floats == null) {
+            floats = new float[shorts.length];
+            for (int i = 0; i < shorts.length; i++) {
+                floats[i] = shorts[i];
+            }
+        }
+        return floats;
+    }
+}
@@ -0,0 +1,93 @@
+package ramo.klevis;
+
+import java.util.Arrays;
+
+/**
+ * Integer convolution of flat short planes with int kernels into int sums, for kernels of integers like the edge
+ * filters. The sums are exact, so they equal the double sums of the same pixels and kernel. Each input value
+ * takes two bytes instead of eight, and rows are built one kernel value at a time like in
+ * {@link FloatConvolution}, which the JIT compiles to vector instructions.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class FixedPointConvolution {
+
+    /**
+     * Largest sum of absolute kernel values for which no sum of short pixels can overflow an int.
+     */
+    private static final int MAX_KERNEL_WEIGHT = Integer.MAX_VALUE / (Short.MAX_VALUE + 1);
+
+    private FixedPointConvolution() {
+    }
+
+    /**
+     * @param kernel kernel row by row
+     * @return the kernel as ints, or null when a value is not an integer or the sums could overflow
+     */
+    public static int[] toFixedPoint(final double[] kernel) {
+        final int[] fixed = new int[kernel.length];
+        long weight = 0;
+        for (int i = 0; i < kernel.length; i++) {
+            if (kernel[i] != Math.rint(kernel[i]) || Math.abs(kernel[i]) > MAX_KERNEL_WEIGHT) {
+                return null;
+            }
+            fixed[i] = (int) kernel[i];
+            weight += Math.abs(fixed[i]);
+        }
+        return weight <= MAX_KERNEL_WEIGHT ? fixed : null;
+    }
+
+    /**
+     * Valid convolution, see {@link FlatConvolution#convolve}.
+     */
+    public static void convolve(final short[] input, final int inputOffset, final int inputStride,
+                                final int width, final int height,
+                                final int[] kernel, final int kernelWidth, final int kernelHeight,
+                                final int[] output, final int outputOffset, final int outputStride) {
+        final int outputWidth = width - kernelWidth + 1;
+        final int outputHeight = height - kernelHeight + 1;
+        for (int y = 0; y < outputHeight; y++) {
+            final int out = outputOffset + y * outputStride;
+            Arrays.fill(output, out, out + outputWidth, 0);
+            for (int i = 0; i < kernelHeight; i++) {
+                for (int j = 0; j < kernelWidth; j++) {
+                    final int k = kernel[i * kernelWidth + j];
+                    if (k == 0) {
+                        continue;
+                    }
+                    final int in = inputOffset + (y + i) * inputStride + j;
+                    for (int x = 0; x < outputWidth; x++) {
+                        output[out + x] += input[in + x] * k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Padded convolution, see {@link FlatConvolution#convolvePadded}, in row tiles on the convolution pool.
+     *
+     * @param kernel integer kernel from {@link #toFixedPoint}
+     * @param output width x height values
+     */
+    public static void convolvePadded(final short[] input, final int width, final int height,
+                                      final int[] kernel, final int kernelWidth, final int kernelHeight,
+                                      final int[] output) {
+        final int offset = (kernelHeight / 2) * width + kernelWidth / 2;
+        ParallelConvolution.forEachTile(height - kernelHeight + 1, (from, to) ->
+                convolve(input, from * width, width, width, to - from + kernelHeight - 1,
+                        kernel, kernelWidth, kernelHeight, output, offset + from * width, width));
+        final int top = kernelHeight / 2;
+        final int bottom = height - (kernelHeight - 1 - top);
+        final int left = kernelWidth / 2;
+        final int right = width - (kernelWidth - 1 - left);
+        Arrays.fill(output, 0, top * width, 0);
+        Arrays.fill(output, bottom * width, height * width, 0);
+        for (int y = top; y < bottom; y++) {
+            Arrays.fill(output, y * width, y * width + left, 0);
+            Arrays.fill(output, y * width + right, (y + 1) * width, 0);
+        }
+    }
+}
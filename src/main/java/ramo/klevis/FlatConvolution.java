@@ -0,0 +1,323 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Convolution over flat row-major planes. A plane of width x height values starts at an offset of its array
+ * and its rows are stride values apart, so planes can be parts of bigger buffers. Kernels are flat too, row by
+ * row, and are applied like {@link Convolution#convolution2D}: kernel row i and column j multiply the pixel
+ * i rows below and j columns right of the top left corner of the window, nothing is flipped.
+ * <p>
+ * The general loop adds the products in the same order as {@link Convolution}, row by row, and the unrolled
+ * 3x3 and 5x5 kernels keep that order, so all of them give exactly the same doubles as the 2D version.
+ * Separable kernels can instead be applied as a column and a row pass, which needs kernelWidth +
+ * kernelHeight multiplications per pixel instead of their product.
+ * <p>
+ * When the JDK Vector API is there and VECTOR_CONVOLUTION is on, all of them run on {@code VectorConvolution}
+ * instead of the scalar loops, with the same results.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class FlatConvolution {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(FlatConvolution.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final RowConvolution VECTOR = loadVectorConvolution();
+
+    private FlatConvolution() {
+    }
+
+    /**
+     * The Vector API is an incubator module, so the backend is compiled separately and loaded by name. It is
+     * missing on JDKs older than 17 and without --add-modules jdk.incubator.vector, which leaves the scalar loops.
+     */
+    private static RowConvolution loadVectorConvolution() {
+        if (!Boolean.parseBoolean(config.props.getProperty("VECTOR_CONVOLUTION", "true").trim())) {
+            return null;
+        }
+        try {
+            final RowConvolution vector = (RowConvolution) Class.forName("ramo.klevis.VectorConvolution")
+                    .getDeclaredConstructor().newInstance();
+            LOGGER.info("Convolving with the Vector API, " + vector);
+            return vector;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.info("Vector API not available, convolving with scalar loops: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the convolutions run on the Vector API
+     */
+    public static boolean isVectorized() {
+        return VECTOR != null;
+    }
+
+    /**
+     * @return the vector backend, or null when the scalar loops are used
+     */
+    static RowConvolution vector() {
+        return VECTOR;
+    }
+
+    /**
+     * @param kernel 2D kernel as {@link Convolution} takes it, kernel[i][j] for row i and column j
+     * @return the kernel row by row
+     */
+    public static double[] flatten(final double[][] kernel) {
+        final int kernelHeight = kernel.length;
+        final int kernelWidth = kernel[0].length;
+        final double[] flat = new double[kernelWidth * kernelHeight];
+        for (int i = 0; i < kernelHeight; i++) {
+            System.arraycopy(kernel[i], 0, flat, i * kernelWidth, kernelWidth);
+        }
+        return flat;
+    }
+
+    /**
+     * Valid convolution: only windows lying completely inside the input are computed, so the output has
+     * (width - kernelWidth + 1) x (height - kernelHeight + 1) values.
+     */
+    public static void convolve(final double[] input, final int inputOffset, final int inputStride,
+                                final int width, final int height,
+                                final double[] kernel, final int kernelWidth, final int kernelHeight,
+                                final double[] output, final int outputOffset, final int outputStride) {
+        final int outputWidth = width - kernelWidth + 1;
+        final int outputHeight = height - kernelHeight + 1;
+        if (VECTOR != null) {
+            for (int y = 0; y < outputHeight; y++) {
+                final int out = outputOffset + y * outputStride;
+                Arrays.fill(output, out, out + outputWidth, 0d);
+                VECTOR.convolveRowAdd(input, inputOffset + y * inputStride, inputStride, kernel, kernelWidth,
+                        kernelHeight, output, out, outputWidth);
+            }
+        } else if (kernelWidth == 3 && kernelHeight == 3) {
+            convolve3x3(input, inputOffset, inputStride, outputWidth, outputHeight, kernel,
+                    output, outputOffset, outputStride);
+        } else if (kernelWidth == 5 && kernelHeight == 5) {
+            convolve5x5(input, inputOffset, inputStride, outputWidth, outputHeight, kernel,
+                    output, outputOffset, outputStride);
+        } else {
+            convolveGeneral(input, inputOffset, inputStride, outputWidth, outputHeight, kernel, kernelWidth,
+                    kernelHeight, output, outputOffset, outputStride);
+        }
+    }
+
+    /**
+     * Convolution keeping the size of the input, like {@link Convolution#convolution2DPadded}: every value is
+     * written at the center of its window and the border the windows do not reach is set to zero. The output
+     * is written directly, no intermediate plane is allocated.
+     *
+     * @param output width x height values, not the input
+     */
+    public static void convolvePadded(final double[] input, final int width, final int height,
+                                      final double[] kernel, final int kernelWidth, final int kernelHeight,
+                                      final double[] output) {
+        convolve(input, 0, width, width, height, kernel, kernelWidth, kernelHeight,
+                output, (kernelHeight / 2) * width + kernelWidth / 2, width);
+        clearBorder(output, width, height, kernelWidth, kernelHeight);
+    }
+
+    /**
+     * Padded convolution with the kernel column x row, which is the same as the 2D kernel holding
+     * column[i] * row[j], in a column pass into scratch and a row pass into the output. Results can differ
+     * from the 2D kernel in the last bits, unless all values are integers as with pixels and Sobel kernels.
+     *
+     * @param scratch at least width x (height - column.length + 1) values, overwritten
+     */
+    public static void convolveSeparablePadded(final double[] input, final int width, final int height,
+                                               final double[] column, final double[] row,
+                                               final double[] scratch, final double[] output) {
+        convolveSeparable(input, 0, width, width, height, column, row, scratch,
+                output, (column.length / 2) * width + row.length / 2, width);
+        clearBorder(output, width, height, row.length, column.length);
+    }
+
+    /**
+     * Valid convolution with the kernel column x row, see {@link #convolveSeparablePadded}.
+     *
+     * @param scratch at least width x (height - column.length + 1) values, overwritten
+     */
+    public static void convolveSeparable(final double[] input, final int inputOffset, final int inputStride,
+                                         final int width, final int height,
+                                         final double[] column, final double[] row, final double[] scratch,
+                                         final double[] output, final int outputOffset, final int outputStride) {
+        final int kernelHeight = column.length;
+        final int kernelWidth = row.length;
+        final int outputHeight = height - kernelHeight + 1;
+        final int outputWidth = width - kernelWidth + 1;
+        if (VECTOR != null) {
+            // the column is a kernel one value wide and the row one a value high
+            for (int y = 0; y < outputHeight; y++) {
+                Arrays.fill(scratch, y * width, (y + 1) * width, 0d);
+                VECTOR.convolveRowAdd(input, inputOffset + y * inputStride, inputStride, column, 1, kernelHeight,
+                        scratch, y * width, width);
+            }
+            for (int y = 0; y < outputHeight; y++) {
+                final int out = outputOffset + y * outputStride;
+                Arrays.fill(output, out, out + outputWidth, 0d);
+                VECTOR.convolveRowAdd(scratch, y * width, width, row, kernelWidth, 1, output, out, outputWidth);
+            }
+            return;
+        }
+        for (int y = 0; y < outputHeight; y++) {
+            final int out = y * width;
+            // whole rows are scaled and added, which the JIT turns into vector instructions
+            final int first = inputOffset + y * inputStride;
+            final double c0 = column[0];
+            for (int x = 0; x < width; x++) {
+                scratch[out + x] = input[first + x] * c0;
+            }
+            for (int i = 1; i < kernelHeight; i++) {
+                final int in = first + i * inputStride;
+                final double c = column[i];
+                for (int x = 0; x < width; x++) {
+                    scratch[out + x] += input[in + x] * c;
+                }
+            }
+        }
+        for (int y = 0; y < outputHeight; y++) {
+            final int in = y * width;
+            final int out = outputOffset + y * outputStride;
+            final double r0 = row[0];
+            for (int x = 0; x < outputWidth; x++) {
+                output[out + x] = scratch[in + x] * r0;
+            }
+            for (int j = 1; j < kernelWidth; j++) {
+                final double r = row[j];
+                for (int x = 0; x < outputWidth; x++) {
+                    output[out + x] += scratch[in + x + j] * r;
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a kernel into a column and a row whose product it is, when its rank is one.
+     *
+     * @return {column, row}, or null when the kernel is not separable
+     */
+    public static double[][] separate(final double[] kernel, final int kernelWidth, final int kernelHeight) {
+        // the row with the biggest value becomes the row vector, every other row has to be a multiple of it
+        int pivot = 0;
+        for (int i = 1; i < kernel.length; i++) {
+            if (Math.abs(kernel[i]) > Math.abs(kernel[pivot])) {
+                pivot = i;
+            }
+        }
+        if (kernel[pivot] == 0) {
+            return null;
+        }
+        final int pivotRow = pivot / kernelWidth;
+        final int pivotColumn = pivot % kernelWidth;
+        final double[] row = new double[kernelWidth];
+        System.arraycopy(kernel, pivotRow * kernelWidth, row, 0, kernelWidth);
+        final double[] column = new double[kernelHeight];
+        for (int i = 0; i < kernelHeight; i++) {
+            column[i] = kernel[i * kernelWidth + pivotColumn] / row[pivotColumn];
+            for (int j = 0; j < kernelWidth; j++) {
+                if (column[i] * row[j] != kernel[i * kernelWidth + j]) {
+                    return null;
+                }
+            }
+        }
+        return new double[][]{column, row};
+    }
+
+    /**
+     * Zeroes the part of a padded output that no window of the kernel reaches.
+     */
+    static void clearBorder(final double[] output, final int width, final int height,
+                                    final int kernelWidth, final int kernelHeight) {
+        final int top = kernelHeight / 2;
+        final int bottom = height - (kernelHeight - 1 - top);
+        final int left = kernelWidth / 2;
+        final int right = width - (kernelWidth - 1 - left);
+        Arrays.fill(output, 0, top * width, 0d);
+        Arrays.fill(output, bottom * width, height * width, 0d);
+        for (int y = top; y < bottom; y++) {
+            Arrays.fill(output, y * width, y * width + left, 0d);
+            Arrays.fill(output, y * width + right, (y + 1) * width, 0d);
+        }
+    }
+
+    private static void convolveGeneral(final double[] input, final int inputOffset, final int inputStride,
+                                        final int outputWidth, final int outputHeight,
+                                        final double[] kernel, final int kernelWidth, final int kernelHeight,
+                                        final double[] output, final int outputOffset, final int outputStride) {
+        for (int y = 0; y < outputHeight; y++) {
+            final int in = inputOffset + y * inputStride;
+            final int out = outputOffset + y * outputStride;
+            for (int x = 0; x < outputWidth; x++) {
+                double sum = 0;
+                for (int i = 0; i < kernelHeight; i++) {
+                    final int window = in + i * inputStride + x;
+                    for (int j = 0; j < kernelWidth; j++) {
+                        sum = sum + input[window + j] * kernel[i * kernelWidth + j];
+                    }
+                }
+                output[out + x] = sum;
+            }
+        }
+    }
+
+    private static void convolve3x3(final double[] input, final int inputOffset, final int inputStride,
+                                    final int outputWidth, final int outputHeight, final double[] kernel,
+                                    final double[] output, final int outputOffset, final int outputStride) {
+        final double k00 = kernel[0], k01 = kernel[1], k02 = kernel[2];
+        final double k10 = kernel[3], k11 = kernel[4], k12 = kernel[5];
+        final double k20 = kernel[6], k21 = kernel[7], k22 = kernel[8];
+        for (int y = 0; y < outputHeight; y++) {
+            final int r0 = inputOffset + y * inputStride;
+            final int r1 = r0 + inputStride;
+            final int r2 = r1 + inputStride;
+            final int out = outputOffset + y * outputStride;
+            for (int x = 0; x < outputWidth; x++) {
+                // one chain of additions in the order of the 2D version, so the doubles match
+                double sum = 0;
+                sum += input[r0 + x] * k00;
+                sum += input[r0 + x + 1] * k01;
+                sum += input[r0 + x + 2] * k02;
+                sum += input[r1 + x] * k10;
+                sum += input[r1 + x + 1] * k11;
+                sum += input[r1 + x + 2] * k12;
+                sum += input[r2 + x] * k20;
+                sum += input[r2 + x + 1] * k21;
+                sum += input[r2 + x + 2] * k22;
+                output[out + x] = sum;
+            }
+        }
+    }
+
+    private static void convolve5x5(final double[] input, final int inputOffset, final int inputStride,
+                                    final int outputWidth, final int outputHeight, final double[] kernel,
+                                    final double[] output, final int outputOffset, final int outputStride) {
+        for (int y = 0; y < outputHeight; y++) {
+            final int out = outputOffset + y * outputStride;
+            for (int x = 0; x < outputWidth; x++) {
+                output[out + x] = 0;
+            }
+            // one kernel row at a time over the whole output row, adding to the partial sums in the same order
+            // as the 2D version while only five kernel values are live
+            for (int i = 0; i < 5; i++) {
+                final int in = inputOffset + (y + i) * inputStride;
+                final double k0 = kernel[i * 5], k1 = kernel[i * 5 + 1], k2 = kernel[i * 5 + 2];
+                final double k3 = kernel[i * 5 + 3], k4 = kernel[i * 5 + 4];
+                for (int x = 0; x < outputWidth; x++) {
+                    double sum = output[out + x];
+                    sum += input[in + x] * k0;
+                    sum += input[in + x + 1] * k1;
+                    sum += input[in + x + 2] * k2;
+                    sum += input[in + x + 3] * k3;
+                    sum += input[in + x + 4] * k4;
+                    output[out + x] = sum;
+                }
+            }
+        }
+    }
+}
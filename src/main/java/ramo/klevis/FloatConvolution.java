@@ -0,0 +1,81 @@
+package ramo.klevis;
+
+import java.util.Arrays;
+
+/**
+ * Convolution of flat float planes, laid out like the double planes of {@link FlatConvolution}. Every output row
+ * is built one kernel value at a time, scaling a shifted input row and adding it, which the JIT compiles to
+ * vector instructions of twice as many floats as doubles. Kernel values of zero, like the middle column of
+ * Sobel, are skipped. Padded convolutions are split into row tiles on the pool of {@link ParallelConvolution}.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class FloatConvolution {
+
+    private FloatConvolution() {
+    }
+
+    /**
+     * @return the values rounded to float
+     */
+    public static float[] toFloats(final double[] values) {
+        final float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+
+    /**
+     * Valid convolution, see {@link FlatConvolution#convolve}.
+     */
+    public static void convolve(final float[] input, final int inputOffset, final int inputStride,
+                                final int width, final int height,
+                                final float[] kernel, final int kernelWidth, final int kernelHeight,
+                                final float[] output, final int outputOffset, final int outputStride) {
+        final int outputWidth = width - kernelWidth + 1;
+        final int outputHeight = height - kernelHeight + 1;
+        for (int y = 0; y < outputHeight; y++) {
+            final int out = outputOffset + y * outputStride;
+            Arrays.fill(output, out, out + outputWidth, 0f);
+            for (int i = 0; i < kernelHeight; i++) {
+                for (int j = 0; j < kernelWidth; j++) {
+                    final float k = kernel[i * kernelWidth + j];
+                    if (k == 0) {
+                        continue;
+                    }
+                    final int in = inputOffset + (y + i) * inputStride + j;
+                    for (int x = 0; x < outputWidth; x++) {
+                        output[out + x] += input[in + x] * k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Padded convolution, see {@link FlatConvolution#convolvePadded}, in row tiles on the convolution pool.
+     *
+     * @param output width x height values, not the input
+     */
+    public static void convolvePadded(final float[] input, final int width, final int height,
+                                      final float[] kernel, final int kernelWidth, final int kernelHeight,
+                                      final float[] output) {
+        final int offset = (kernelHeight / 2) * width + kernelWidth / 2;
+        ParallelConvolution.forEachTile(height - kernelHeight + 1, (from, to) ->
+                convolve(input, from * width, width, width, to - from + kernelHeight - 1,
+                        kernel, kernelWidth, kernelHeight, output, offset + from * width, width));
+        final int top = kernelHeight / 2;
+        final int bottom = height - (kernelHeight - 1 - top);
+        final int left = kernelWidth / 2;
+        final int right = width - (kernelWidth - 1 - left);
+        Arrays.fill(output, 0, top * width, 0f);
+        Arrays.fill(output, bottom * width, height * width, 0f);
+        for (int y = top; y < bottom; y++) {
+            Arrays.fill(output, y * width, y * width + left, 0f);
+            Arrays.fill(output, y * width + right, (y + 1) * width, 0f);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ramo.klevis;
+
+import java.util.Arrays;
+
+/**
+ * Hyperparameters a trainer is configured with: the sizes of the hidden layers between the input and the ten
+ * outputs, the learning rate and the size of the minibatches, blocks of rows for the perceptron. The perceptron
+ * is trained with L-BFGS, which has no learning rate.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class HyperParameters {
+
+    /**
+     * Hyperparameters of {@link NeuralNetwork#train}.
+     */
+    public static final HyperParameters PERCEPTRON = new HyperParameters(new int[]{128, 64}, 0.01, 128);
+    /**
+     * Hyperparameters of {@link ConvolutionalNeuralNetwork#train}.
+     */
+    public static final HyperParameters LENET = new HyperParameters(new int[]{128, 64}, 0.01, 64);
+    /**
+     * Hyperparameters of {@link LenetMnistExample}, the dense layer of 500 units of the original example.
+     */
+    public static final HyperParameters LENET_EXAMPLE = new HyperParameters(new int[]{500}, 0.01, 64);
+
+    private final int[] hiddenLayers;
+    private final double learningRate;
+    private final int batchSize;
+
+    public HyperParameters(int[] hiddenLayers, double learningRate, int batchSize) {
+        if (hiddenLayers.length == 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Expected hidden layers and a positive batch size, got "
+                    + Arrays.toString(hiddenLayers) + " and " + batchSize);
+        }
+        this.hiddenLayers = hiddenLayers.clone();
+        this.learningRate = learningRate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param hiddenLayers sizes joined by dashes, like 128-64
+     * @param learningRate learning rate like 0.01
+     * @param batchSize    batch size like 64
+     */
+    public static HyperParameters parse(String hiddenLayers, String learningRate, String batchSize) {
+        return new HyperParameters(parseLayers(hiddenLayers), Double.parseDouble(learningRate.trim()),
+                Integer.parseInt(batchSize.trim()));
+    }
+
+    /**
+     * @param hiddenLayers sizes joined by dashes, like 128-64
+     */
+    static int[] parseLayers(String hiddenLayers) {
+        return Arrays.stream(hiddenLayers.split("-")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    public int[] getHiddenLayers() {
+        return hiddenLayers.clone();
+    }
+
+    /**
+     * @param inputs amount of inputs of the first hidden layer
+     * @return sizes of all layers, the inputs first and the ten digits last
+     */
+    public int[] layers(int inputs) {
+        final int[] layers = new int[hiddenLayers.length + 2];
+        layers[0] = inputs;
+        System.arraycopy(hiddenLayers, 0, layers, 1, hiddenLayers.length);
+        layers[layers.length - 1] = 10;
+        return layers;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HyperParameters)) {
+            return false;
+        }
+        final HyperParameters that = (HyperParameters) o;
+        return Double.compare(that.learningRate, learningRate) == 0 && batchSize == that.batchSize
+                && Arrays.equals(hiddenLayers, that.hiddenLayers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(hiddenLayers) + Double.hashCode(learningRate)) + batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperParameters{" +
+                "hiddenLayers=" + Arrays.toString(hiddenLayers) +
+                ", learningRate=" + learningRate +
+                ", batchSize=" + batchSize +
+                '}';
+    }
+}
@@ -0,0 +1,349 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the hyperparameters of a {@link TrialTrainer}, running up to parallelTrials trials at once. Trials are
+ * trained in rungs of rounds, from minRounds doubling up to maxRounds, and trials falling behind are stopped
+ * early: a grid or random search stops a trial below the median accuracy other trials reached at the same rung,
+ * successive halving keeps only the better half of the trials at every rung.
+ * <p>
+ * No trial starts another rung once the process has used cpuBudgetSeconds of CPU time since the search began,
+ * native threads of ND4J and Spark executors in this JVM included.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class HyperparameterSearch {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(HyperparameterSearch.class);
+
+    public enum Strategy {
+        /**
+         * Every combination of the space.
+         */
+        GRID,
+        /**
+         * Combinations of the space picked at random.
+         */
+        RANDOM,
+        /**
+         * All combinations start, the better half of the trials continues at every rung.
+         */
+        HALVING
+    }
+
+    public enum Status {
+        /**
+         * Trained up to the last rung.
+         */
+        COMPLETED,
+        /**
+         * Stopped early, behind the other trials.
+         */
+        STOPPED,
+        /**
+         * Stopped when the CPU budget was spent.
+         */
+        OVER_BUDGET,
+        FAILED
+    }
+
+    private final TrialTrainer trainer;
+    private final int parallelTrials;
+    private final long cpuBudgetNanos;
+    private final List<Integer> rungs = new ArrayList<>();
+    private long cpuStart;
+
+    /**
+     * @param cpuBudgetSeconds CPU time the search may use, 0 for no limit
+     * @param minRounds        rounds of the first rung
+     * @param maxRounds        rounds of the last rung
+     */
+    public HyperparameterSearch(TrialTrainer trainer, int parallelTrials, double cpuBudgetSeconds, int minRounds,
+                                int maxRounds) {
+        if (parallelTrials < 1 || minRounds < 1 || maxRounds < minRounds) {
+            throw new IllegalArgumentException("Expected at least one parallel trial and 1 <= minRounds <= maxRounds");
+        }
+        this.trainer = trainer;
+        this.parallelTrials = parallelTrials;
+        this.cpuBudgetNanos = (long) (cpuBudgetSeconds * 1e9);
+        for (long rounds = minRounds; rounds < maxRounds; rounds *= 2) {
+            rungs.add((int) rounds);
+        }
+        rungs.add(maxRounds);
+    }
+
+    /**
+     * @param candidates hyperparameters to try, one trial each
+     * @return results of all trials in the order of the candidates
+     */
+    public List<TrialResult> run(Strategy strategy, List<HyperParameters> candidates) throws InterruptedException {
+        final List<TrialResult> results = new ArrayList<>();
+        for (HyperParameters parameters : candidates) {
+            results.add(new TrialResult(results.size(), parameters));
+        }
+        LOGGER.info("Searching " + candidates.size() + " candidates with " + strategy + " in rungs of " + rungs
+                + " rounds, " + parallelTrials + " trials at once");
+        cpuStart = cpuNanos();
+        try {
+            if (strategy == Strategy.HALVING) {
+                halve(results);
+            } else {
+                final Map<Integer, List<Double>> reached = new HashMap<>();
+                inParallel(results, result -> stopBehindMedian(result, reached));
+            }
+        } finally {
+            results.forEach(TrialResult::close);
+        }
+        return results;
+    }
+
+    private void stopBehindMedian(TrialResult result, Map<Integer, List<Double>> reached) {
+        try {
+            for (int rung : rungs) {
+                if (!advance(result, rung)) {
+                    return;
+                }
+                final boolean behind;
+                synchronized (reached) {
+                    final List<Double> others = reached.computeIfAbsent(rung, r -> new ArrayList<>());
+                    behind = rung < last() && others.size() >= 2 && result.accuracy < median(others);
+                    others.add(result.accuracy);
+                }
+                if (behind) {
+                    result.status = Status.STOPPED;
+                    return;
+                }
+            }
+            result.status = Status.COMPLETED;
+        } finally {
+            result.close();
+        }
+    }
+
+    private void halve(List<TrialResult> results) throws InterruptedException {
+        List<TrialResult> survivors = results;
+        for (int rung : rungs) {
+            inParallel(survivors, result -> advance(result, rung));
+            survivors = survivors.stream()
+                    .filter(result -> result.status == null)
+                    .sorted(Comparator.comparingDouble((TrialResult result) -> result.accuracy).reversed())
+                    .collect(Collectors.toList());
+            if (rung < last()) {
+                final int keep = (survivors.size() + 1) / 2;
+                for (TrialResult loser : survivors.subList(keep, survivors.size())) {
+                    loser.status = Status.STOPPED;
+                    loser.close();
+                }
+                survivors = new ArrayList<>(survivors.subList(0, keep));
+            }
+        }
+        for (TrialResult survivor : survivors) {
+            survivor.status = Status.COMPLETED;
+        }
+    }
+
+    /**
+     * Trains a trial up to the rounds of a rung.
+     *
+     * @return false when the trial failed or the budget is spent, with its status set
+     */
+    private boolean advance(TrialResult result, int rounds) {
+        if (cpuBudgetNanos > 0 && cpuNanos() - cpuStart >= cpuBudgetNanos) {
+            result.status = Status.OVER_BUDGET;
+            return false;
+        }
+        final long start = System.nanoTime();
+        try {
+            if (result.trial == null) {
+                result.trial = trainer.start(result.parameters);
+                result.parameterBytes = result.trial.parameterBytes();
+            }
+            result.accuracy = result.trial.train(rounds - result.rounds);
+            result.rounds = rounds;
+            result.wallNanos += System.nanoTime() - start;
+            LOGGER.info("Trial " + result.id + " of " + result.parameters + " reached " + result.accuracy
+                    + " after " + rounds + " rounds");
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Trial " + result.id + " of " + result.parameters + " failed", e);
+            result.wallNanos += System.nanoTime() - start;
+            result.status = Status.FAILED;
+            return false;
+        }
+    }
+
+    private void inParallel(List<TrialResult> results, Consumer<TrialResult> task) throws InterruptedException {
+        if (results.isEmpty()) {
+            return;
+        }
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelTrials, results.size()));
+        try {
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (TrialResult result : results) {
+                tasks.add(() -> {
+                    task.accept(result);
+                    return null;
+                });
+            }
+            pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int last() {
+        return rungs.get(rungs.size() - 1);
+    }
+
+    private static double median(List<Double> values) {
+        final List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        final int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    /**
+     * CPU time of the whole process, or the wall time where the JVM cannot tell.
+     */
+    private static long cpuNanos() {
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Writes one line per trial: hyperparameters, rounds trained, accuracy, wall time and memory of the parameters.
+     */
+    public static void writeCsv(List<TrialResult> results, File file) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("trial,hidden_layers,learning_rate,batch_size,rounds,accuracy,wall_seconds,"
+                    + "parameter_bytes,status");
+            for (TrialResult result : results) {
+                final HyperParameters parameters = result.parameters;
+                writer.println(String.format(Locale.ROOT, "%d,%s,%s,%d,%d,%.4f,%.1f,%d,%s", result.id,
+                        Arrays.stream(parameters.getHiddenLayers()).mapToObj(Integer::toString)
+                                .collect(Collectors.joining("-")),
+                        parameters.getLearningRate(), parameters.getBatchSize(), result.rounds, result.accuracy,
+                        result.getWallSeconds(), result.parameterBytes, result.status));
+            }
+        }
+    }
+
+    /**
+     * @return the trial of the smallest parameters among those reaching the accuracy, the faster one of equal
+     * sizes, or null when none does
+     */
+    public static TrialResult cheapest(List<TrialResult> results, double targetAccuracy) {
+        return results.stream()
+                .filter(result -> result.rounds > 0 && result.accuracy >= targetAccuracy)
+                .min(Comparator.comparingLong(TrialResult::getParameterBytes)
+                        .thenComparingDouble(TrialResult::getWallSeconds))
+                .orElse(null);
+    }
+
+    /**
+     * Progress of a trial, final once the search returned.
+     */
+    public static final class TrialResult {
+
+        private final int id;
+        private final HyperParameters parameters;
+        private TrialTrainer.Trial trial;
+        private int rounds;
+        private double accuracy;
+        private long wallNanos;
+        private long parameterBytes;
+        private Status status;
+
+        private TrialResult(int id, HyperParameters parameters) {
+            this.id = id;
+            this.parameters = parameters;
+        }
+
+        private void close() {
+            if (trial != null) {
+                trial.close();
+                trial = null;
+            }
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public HyperParameters getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @return rounds trained, 0 when the trial never trained
+         */
+        public int getRounds() {
+            return rounds;
+        }
+
+        /**
+         * @return accuracy on the test set after the last rung the trial trained
+         */
+        public double getAccuracy() {
+            return accuracy;
+        }
+
+        /**
+         * @return wall time spent training and evaluating the trial
+         */
+        public double getWallSeconds() {
+            return wallNanos / 1e9;
+        }
+
+        public long getParameterBytes() {
+            return parameterBytes;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return "TrialResult{" +
+                    "id=" + id +
+                    ", parameters=" + parameters +
+                    ", rounds=" + rounds +
+                    ", accuracy=" + accuracy +
+                    ", wallSeconds=" + getWallSeconds() +
+                    ", parameterBytes=" + parameterBytes +
+                    ", status=" + status +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ramo.klevis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Values tried for every hyperparameter, written in config.properties as lists separated by commas: hidden layers
+ * as sizes joined by dashes, like 128-64,256-128.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class HyperparameterSpace {
+
+    private final List<int[]> hiddenLayers;
+    private final List<Double> learningRates;
+    private final List<Integer> batchSizes;
+
+    public HyperparameterSpace(List<int[]> hiddenLayers, List<Double> learningRates, List<Integer> batchSizes) {
+        if (hiddenLayers.isEmpty() || learningRates.isEmpty() || batchSizes.isEmpty()) {
+            throw new IllegalArgumentException("Every hyperparameter needs at least one value");
+        }
+        this.hiddenLayers = new ArrayList<>(hiddenLayers);
+        this.learningRates = new ArrayList<>(learningRates);
+        this.batchSizes = new ArrayList<>(batchSizes);
+    }
+
+    /**
+     * @param hiddenLayers  hidden layers like 128-64,256-128
+     * @param learningRates learning rates like 0.01,0.03
+     * @param batchSizes    batch sizes like 64,128
+     */
+    public static HyperparameterSpace parse(String hiddenLayers, String learningRates, String batchSizes) {
+        final List<int[]> layers = new ArrayList<>();
+        for (String value : split(hiddenLayers)) {
+            layers.add(HyperParameters.parseLayers(value));
+        }
+        final List<Double> rates = new ArrayList<>();
+        for (String value : split(learningRates)) {
+            rates.add(Double.parseDouble(value));
+        }
+        final List<Integer> sizes = new ArrayList<>();
+        for (String value : split(batchSizes)) {
+            sizes.add(Integer.parseInt(value));
+        }
+        return new HyperparameterSpace(layers, rates, sizes);
+    }
+
+    private static List<String> split(String values) {
+        final List<String> list = new ArrayList<>();
+        for (String value : values.split(",")) {
+            if (!value.trim().isEmpty()) {
+                list.add(value.trim());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the same space with only one learning rate, for trainers without one
+     */
+    public HyperparameterSpace withLearningRate(double learningRate) {
+        return new HyperparameterSpace(hiddenLayers, Collections.singletonList(learningRate), batchSizes);
+    }
+
+    /**
+     * @return every combination of the values
+     */
+    public List<HyperParameters> grid() {
+        final List<HyperParameters> grid = new ArrayList<>();
+        for (int[] layers : hiddenLayers) {
+            for (double learningRate : learningRates) {
+                for (int batchSize : batchSizes) {
+                    grid.add(new HyperParameters(layers, learningRate, batchSize));
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @param trials amount of combinations, at most all of them
+     * @return distinct combinations picked at random
+     */
+    public List<HyperParameters> random(int trials, long seed) {
+        final List<HyperParameters> grid = grid();
+        Collections.shuffle(grid, new Random(seed));
+        return new ArrayList<>(grid.subList(0, Math.min(trials, grid.size())));
+    }
+}
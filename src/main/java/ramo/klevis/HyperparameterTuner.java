@@ -0,0 +1,84 @@
+package ramo.klevis;
+
+import org.apache.spark.sql.SparkSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Searches the hyperparameters of the perceptron or of the convolutional network and picks the cheapest model
+ * that reaches SEARCH_TARGET_ACCURACY. The strategy, the space, the rungs, the parallel trials and the CPU budget
+ * are taken from config.properties, and every trial is written to SEARCH_RESULTS_FILE.
+ * <p>
+ * Usage: HyperparameterTuner [perceptron | cnn]
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class HyperparameterTuner {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(HyperparameterTuner.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final HyperparameterSearch.Strategy STRATEGY = HyperparameterSearch.Strategy.valueOf(
+            config.props.getProperty("SEARCH_STRATEGY", "HALVING").trim().toUpperCase());
+    private static final String HIDDEN_LAYERS = config.props.getProperty("SEARCH_HIDDEN_LAYERS",
+            "128-64,256-128,64-32,64");
+    private static final String LEARNING_RATES = config.props.getProperty("SEARCH_LEARNING_RATES",
+            "0.003,0.01,0.03");
+    private static final String BATCH_SIZES = config.props.getProperty("SEARCH_BATCH_SIZES", "64,128");
+    private static final int RANDOM_TRIALS = intProperty("SEARCH_RANDOM_TRIALS", "8");
+    private static final int PARALLEL_TRIALS = intProperty("SEARCH_PARALLEL_TRIALS", "2");
+    private static final double CPU_SECONDS = Double.parseDouble(
+            config.props.getProperty("SEARCH_CPU_SECONDS", "3600").trim());
+    private static final int TRAIN_IMAGES = intProperty("SEARCH_TRAIN_IMAGES", "60000");
+    private static final int TEST_IMAGES = intProperty("SEARCH_TEST_IMAGES", "10000");
+    private static final double TARGET_ACCURACY = Double.parseDouble(
+            config.props.getProperty("SEARCH_TARGET_ACCURACY", "0.98").trim());
+    private static final String RESULTS_FILE = config.props.getProperty("SEARCH_RESULTS_FILE",
+            "searchResults.csv").trim();
+
+    private static int intProperty(String key, String defaultValue) {
+        return Integer.parseInt(config.props.getProperty(key, defaultValue).trim());
+    }
+
+    public static void main(String[] args) throws Exception {
+        final boolean cnn = args.length > 0 && "cnn".equalsIgnoreCase(args[0]);
+        HyperparameterSpace space = HyperparameterSpace.parse(HIDDEN_LAYERS, LEARNING_RATES, BATCH_SIZES);
+        final TrialTrainer trainer;
+        final HyperparameterSearch search;
+        SparkSession sparkSession = null;
+        if (cnn) {
+            trainer = new CnnTrialTrainer(TRAIN_IMAGES, TEST_IMAGES);
+            search = new HyperparameterSearch(trainer, PARALLEL_TRIALS, CPU_SECONDS,
+                    intProperty("SEARCH_CNN_MIN_EPOCHS", "1"), intProperty("SEARCH_CNN_MAX_EPOCHS", "16"));
+        } else {
+            // L-BFGS has no learning rate, trying several would only repeat the same trials
+            space = space.withLearningRate(HyperParameters.PERCEPTRON.getLearningRate());
+            sparkSession = NeuralNetwork.createSparkSession();
+            trainer = new MlpTrialTrainer(sparkSession, TRAIN_IMAGES, TEST_IMAGES);
+            search = new HyperparameterSearch(trainer, PARALLEL_TRIALS, CPU_SECONDS,
+                    intProperty("SEARCH_MLP_MIN_ITERATIONS", "10"), intProperty("SEARCH_MLP_MAX_ITERATIONS", "160"));
+        }
+        final List<HyperParameters> candidates = STRATEGY == HyperparameterSearch.Strategy.RANDOM
+                ? space.random(RANDOM_TRIALS, 1234L) : space.grid();
+        try {
+            final List<HyperparameterSearch.TrialResult> results = search.run(STRATEGY, candidates);
+            HyperparameterSearch.writeCsv(results, new File(RESULTS_FILE));
+            LOGGER.info("Wrote " + results.size() + " trials to " + RESULTS_FILE);
+            final HyperparameterSearch.TrialResult cheapest = HyperparameterSearch.cheapest(results, TARGET_ACCURACY);
+            if (cheapest == null) {
+                LOGGER.info("No trial reached an accuracy of " + TARGET_ACCURACY);
+            } else {
+                LOGGER.info("Cheapest model reaching " + TARGET_ACCURACY + ": " + cheapest);
+            }
+        } finally {
+            if (sparkSession != null) {
+                ((MlpTrialTrainer) trainer).unpersist();
+                sparkSession.stop();
+            }
+        }
+    }
+}
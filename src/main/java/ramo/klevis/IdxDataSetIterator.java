@@ -0,0 +1,279 @@
+package ramo.klevis;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * DataSetIterator over memory-mapped IDX files, a local replacement of MnistDataSetIterator that reads the
+ * paths from config.properties and works offline. A background thread builds the next minibatches while the
+ * current one trains, {@link #close} stops it. Pixels are scaled to [0, 1] and labels one-hot encoded like
+ * MnistDataSetIterator.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class IdxDataSetIterator implements DataSetIterator, AutoCloseable {
+
+    private static final int NUMBER_OF_LABELS = 10;
+    private static final List<String> LABELS = Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+    private static final DataSet END = new DataSet();
+
+    private final MappedIdxReader reader;
+    private final int batchSize;
+    private final int numExamples;
+    private final boolean shuffle;
+    private final Random random;
+    private final int prefetch;
+    private final int[] order;
+    private DataSetPreProcessor preProcessor;
+    private BlockingQueue<DataSet> batches;
+    private Thread builder;
+    private volatile Throwable failure;
+    private int cursor;
+
+    /**
+     * @param reader      mapped IDX files
+     * @param batchSize   size of the minibatches
+     * @param numExamples amount of records used from the start of the files
+     * @param shuffle     whether the records are shuffled every epoch
+     * @param seed        seed of the shuffling
+     * @param prefetch    amount of minibatches built ahead
+     */
+    public IdxDataSetIterator(MappedIdxReader reader, int batchSize, int numExamples,
+                              boolean shuffle, long seed, int prefetch) {
+        if (numExamples > reader.size()) {
+            throw new IllegalArgumentException("Requested " + numExamples + " examples but only "
+                    + reader.size() + " are available");
+        }
+        this.reader = reader;
+        this.batchSize = batchSize;
+        this.numExamples = numExamples;
+        this.shuffle = shuffle;
+        this.random = new Random(seed);
+        this.prefetch = prefetch;
+        this.order = new int[numExamples];
+        for (int i = 0; i < numExamples; i++) {
+            order[i] = i;
+        }
+        reset();
+    }
+
+    /**
+     * @param inputImagePath path of input images
+     * @param inputLabelPath path of input image labels
+     * @param batchSize      size of the minibatches
+     * @param numExamples    amount of records used from the start of the files
+     * @param shuffle        whether the records are shuffled every epoch
+     * @param seed           seed of the shuffling
+     * @return iterator that builds two minibatches ahead
+     * @throws IOException if a file can not be mapped or its header is not a valid IDX header
+     */
+    public static IdxDataSetIterator open(String inputImagePath, String inputLabelPath, int batchSize,
+                                          int numExamples, boolean shuffle, long seed) throws IOException {
+        return new IdxDataSetIterator(MappedIdxReader.open(inputImagePath, inputLabelPath),
+                batchSize, numExamples, shuffle, seed, 2);
+    }
+
+    /**
+     * The pixels of every record are scaled while they are copied from the mapping into the features of the batch,
+     * in one pass and without a view or an intermediate byte copy per record.
+     */
+    private void buildBatches(final BlockingQueue<DataSet> target) {
+        final int imageSize = reader.imageSize();
+        final byte[] labels = new byte[batchSize];
+        try {
+            for (int from = 0; from < numExamples; from += batchSize) {
+                final int count = Math.min(batchSize, numExamples - from);
+                final float[] features = new float[count * imageSize];
+                for (int i = 0; i < count; i++) {
+                    final int index = shuffle ? order[from + i] : from + i;
+                    reader.scaledPixels(index, features, i * imageSize);
+                    labels[i] = (byte) reader.label(index);
+                }
+                target.put(toDataSet(features, labels, count, imageSize));
+            }
+        } catch (InterruptedException e) {
+            // reset or abandoned by the consumer
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            // the consumer only takes, so after clearing the queue the marker never waits for room
+            target.clear();
+            try {
+                target.put(END);
+            } catch (InterruptedException interrupted) {
+                // reset by the consumer, which no longer reads this queue
+            }
+        }
+    }
+
+    /**
+     * @param features pixels already scaled to [0, 1], owned by the data set afterwards
+     * @return minibatch with features of shape [count, imageSize] and one-hot labels of shape [count, 10]
+     */
+    private static DataSet toDataSet(final float[] features, final byte[] labels, final int count,
+                                     final int imageSize) {
+        final float[] oneHot = new float[count * NUMBER_OF_LABELS];
+        for (int i = 0; i < count; i++) {
+            oneHot[i * NUMBER_OF_LABELS + (labels[i] & 0xFF)] = 1f;
+        }
+        final INDArray featureMatrix = Nd4j.create(features, new int[]{count, imageSize});
+        final INDArray labelMatrix = Nd4j.create(oneHot, new int[]{count, NUMBER_OF_LABELS});
+        return new DataSet(featureMatrix, labelMatrix);
+    }
+
+    private void shuffleOrder() {
+        for (int i = order.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    @Override
+    public DataSet next(int num) {
+        if (num != batchSize) {
+            throw new UnsupportedOperationException("Prefetched minibatches have a fixed size of " + batchSize);
+        }
+        return next();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < numExamples;
+    }
+
+    @Override
+    public DataSet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final DataSet dataSet;
+        try {
+            dataSet = batches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next minibatch", e);
+        }
+        if (dataSet == END) {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw (Error) failure;
+        }
+        cursor += dataSet.numExamples();
+        if (preProcessor != null) {
+            preProcessor.preProcess(dataSet);
+        }
+        return dataSet;
+    }
+
+    @Override
+    public int totalExamples() {
+        return numExamples;
+    }
+
+    @Override
+    public int inputColumns() {
+        return reader.imageSize();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return NUMBER_OF_LABELS;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        // minibatches are already built on a background thread
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        stopBuilder();
+        if (shuffle) {
+            shuffleOrder();
+        }
+        final BlockingQueue<DataSet> target = new ArrayBlockingQueue<>(prefetch);
+        batches = target;
+        failure = null;
+        cursor = 0;
+        builder = new Thread(() -> buildBatches(target), "idx-batch-prefetch");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Stops the thread building minibatches, the iterator can be used again after a {@link #reset}.
+     */
+    @Override
+    public void close() {
+        stopBuilder();
+        cursor = numExamples;
+    }
+
+    private void stopBuilder() {
+        if (builder != null) {
+            builder.interrupt();
+            try {
+                builder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            builder = null;
+        }
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int numExamples() {
+        return numExamples;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return LABELS;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,83 @@
+package ramo.klevis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Parsed and validated headers of a pair of IDX image and label files.
+ * See IdxReaderTest and the description of the data set for the layout.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+final class IdxHeader {
+
+    static final int IMAGE_MAGIC_NUMBER = 2051;
+    static final int LABEL_MAGIC_NUMBER = 2049;
+    static final int IMAGE_HEADER_SIZE = 16;
+    static final int LABEL_HEADER_SIZE = 8;
+
+    final int size;
+    final int rows;
+    final int columns;
+
+    private IdxHeader(int size, int rows, int columns) {
+        this.size = size;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    int imageSize() {
+        return rows * columns;
+    }
+
+    /**
+     * @param imageHeader    first 16 bytes of the image file
+     * @param imageFileSize  length of the image file
+     * @param inputImagePath path of input images, for the messages
+     * @param labelHeader    first 8 bytes of the label file
+     * @param labelFileSize  length of the label file
+     * @param inputLabelPath path of input image labels, for the messages
+     * @return the validated header
+     * @throws IOException if the headers do not describe a matching pair of IDX files
+     */
+    static IdxHeader parse(final ByteBuffer imageHeader, final long imageFileSize, final String inputImagePath,
+                           final ByteBuffer labelHeader, final long labelFileSize, final String inputLabelPath)
+            throws IOException {
+        if (imageFileSize < IMAGE_HEADER_SIZE) {
+            throw new IOException("Image file is too short for an IDX header: " + inputImagePath);
+        }
+        if (labelFileSize < LABEL_HEADER_SIZE) {
+            throw new IOException("Label file is too short for an IDX header: " + inputLabelPath);
+        }
+        final int magicNumberImages = imageHeader.getInt(0);
+        final int numberOfImages = imageHeader.getInt(4);
+        final int numberOfRows = imageHeader.getInt(8);
+        final int numberOfColumns = imageHeader.getInt(12);
+        final int magicNumberLabels = labelHeader.getInt(0);
+        final int numberOfLabels = labelHeader.getInt(4);
+
+        if (magicNumberImages != IMAGE_MAGIC_NUMBER) {
+            throw new IOException("Not an IDX image file, magic number " + magicNumberImages + ": " + inputImagePath);
+        }
+        if (magicNumberLabels != LABEL_MAGIC_NUMBER) {
+            throw new IOException("Not an IDX label file, magic number " + magicNumberLabels + ": " + inputLabelPath);
+        }
+        if (numberOfRows <= 0 || numberOfColumns <= 0) {
+            throw new IOException("Invalid image dimension " + numberOfRows + "x" + numberOfColumns + ": " + inputImagePath);
+        }
+        if (numberOfImages != numberOfLabels) {
+            throw new IOException("Found " + numberOfImages + " images but " + numberOfLabels + " labels");
+        }
+        final long expectedImageBytes = IMAGE_HEADER_SIZE + (long) numberOfImages * numberOfRows * numberOfColumns;
+        if (imageFileSize < expectedImageBytes) {
+            throw new IOException("Image file is truncated, expected " + expectedImageBytes + " bytes: " + inputImagePath);
+        }
+        if (labelFileSize < LABEL_HEADER_SIZE + (long) numberOfLabels) {
+            throw new IOException("Label file is truncated, expected " + (LABEL_HEADER_SIZE + (long) numberOfLabels)
+                    + " bytes: " + inputLabelPath);
+        }
+        return new IdxHeader(numberOfImages, numberOfRows, numberOfColumns);
+    }
+}
@@ -3,9 +3,13 @@ package ramo.klevis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * The DigitRecognizer program implements an application that recognizes Digits drawn by the user, using Neural Networks.
@@ -28,6 +32,23 @@ public class IdxReader {
 
     public static final int VECTOR_DIMENSION = 784; //square 28*28 as from data set -> array 784 items
 
+    private static final boolean DATASET_OFF_HEAP = Boolean.parseBoolean(config.props.getProperty("DATASET_OFF_HEAP", "false").trim());
+    private static final int READER_THREADS = readerThreads();
+    private static final int MIN_RANGE_SIZE = 1000;
+    private static final int RANGES_PER_THREAD = 4;
+
+    /**
+     * Decodes the images in [from, to) of a data set.
+     */
+    private interface RangeTask {
+        void decode(int from, int to);
+    }
+
+    private static int readerThreads() {
+        final int threads = Integer.parseInt(config.props.getProperty("IDX_READER_THREADS", "0").trim());
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * @param size
      * @return labelled images
@@ -44,6 +65,61 @@ public class IdxReader {
         return getLabeledImages(INPUT_IMAGE_PATH_TEST_DATA, INPUT_LABEL_PATH_TEST_DATA, size);
     }
 
+    /**
+     * @param size
+     * @return compact data set of the training images
+     */
+    public static MnistDataset loadDataset(final int size) {
+        return getDataset(INPUT_IMAGE_PATH, INPUT_LABEL_PATH, size);
+    }
+
+    /**
+     * @param size
+     * @return compact data set of the test images
+     */
+    public static MnistDataset loadTestDataset(final int size) {
+        return getDataset(INPUT_IMAGE_PATH_TEST_DATA, INPUT_LABEL_PATH_TEST_DATA, size);
+    }
+
+    /**
+     * @param inputImagePath  path of input images
+     * @param inputLabelPath  path of input image labels
+     * @param amountOfDataSet amount of the dataset
+     * @return data set holding the raw pixels of the images
+     */
+    private static MnistDataset getDataset(final String inputImagePath,
+                                           final String inputLabelPath,
+                                           final int amountOfDataSet) {
+        try {
+            final MappedIdxReader reader = openReader(inputImagePath, inputLabelPath, amountOfDataSet);
+            long start = System.currentTimeMillis();
+            final MnistDataset dataset = MnistDataset.allocate(amountOfDataSet, reader.imageSize(), DATASET_OFF_HEAP);
+            forEachRange(amountOfDataSet, (from, to) -> dataset.copyFrom(reader, from, to - from));
+            LOGGER.info("Time to load " + dataset + " in seconds: " + ((System.currentTimeMillis() - start) / 1000d));
+            return dataset;
+        } catch (Exception e) {
+            LOGGER.error("Smth went wrong: \n" + e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MappedIdxReader openReader(final String inputImagePath,
+                                              final String inputLabelPath,
+                                              final int amountOfDataSet) throws IOException {
+        // the headers are parsed and validated by the reader
+        // see the test and description for dataset
+        final MappedIdxReader reader = MappedIdxReader.open(inputImagePath, inputLabelPath);
+        if (amountOfDataSet > reader.size()) {
+            throw new IllegalArgumentException("Requested " + amountOfDataSet + " images but only "
+                    + reader.size() + " are available in " + inputImagePath);
+        }
+        if (reader.imageSize() != VECTOR_DIMENSION) {
+            throw new IllegalArgumentException("Expected images of " + VECTOR_DIMENSION + " pixels but found "
+                    + reader.rows() + "x" + reader.columns() + " in " + inputImagePath);
+        }
+        return reader;
+    }
+
     /**
      * @param inputImagePath  path of input images
      * @param inputLabelPath  path of input image labels
@@ -54,44 +130,64 @@ public class IdxReader {
                                                        final String inputLabelPath,
                                                        final int amountOfDataSet) {
 
-        final List<LabeledImage> labeledImageArrayList = new ArrayList<>(amountOfDataSet);
-
-        try (FileInputStream inImage = new FileInputStream(inputImagePath);
-             FileInputStream inLabel = new FileInputStream(inputLabelPath)) {
-
-            // just skip the amount of a data
-            // see the test and description for dataset
-            inImage.skip(16);
-            inLabel.skip(8);
-            LOGGER.debug("Available bytes in inputImage stream after read: " + inImage.available());
-            LOGGER.debug("Available bytes in inputLabel stream after read: " + inLabel.available());
-
-            //empty array for 784 pixels - the image from 28x28 pixels in a single row
-            double[] imgPixels = new double[VECTOR_DIMENSION];
+        try {
+            final MappedIdxReader reader = openReader(inputImagePath, inputLabelPath, amountOfDataSet);
+            // every range writes its own slots, so the order does not depend on the threads
+            final LabeledImage[] labeledImages = new LabeledImage[amountOfDataSet];
 
-            LOGGER.info("Creating ADT filed with Labeled Images ...");
+            LOGGER.info("Creating ADT filed with Labeled Images using " + READER_THREADS + " threads ...");
             long start = System.currentTimeMillis();
-            for (int i = 0; i < amountOfDataSet; i++) {
-
-                if (i % 1000 == 0) {
-                    LOGGER.info("Number of images extracted: " + i);
-                }
-                //it fills the array of pixels
-                for (int index = 0; index < VECTOR_DIMENSION; index++) {
-                    imgPixels[index] = inImage.read();
-                }
-                //it creates a label for that
-                int label = inLabel.read();
-                //it creates a compound object and adds them to a list
-                labeledImageArrayList.add(new LabeledImage(label, imgPixels));
-            }
+            forEachRange(amountOfDataSet, (from, to) -> decode(reader, labeledImages, from, to));
             LOGGER.info("Time to load LabeledImages in seconds: " + ((System.currentTimeMillis() - start) / 1000d));
+            return new ArrayList<>(Arrays.asList(labeledImages));
         } catch (Exception e) {
             LOGGER.error("Smth went wrong: \n" + e);
             throw new RuntimeException(e);
         }
+    }
+
+    private static void decode(final MappedIdxReader reader, final LabeledImage[] labeledImages,
+                               final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            //the raw bytes of the 784 pixels - the image from 28x28 pixels in a single row
+            byte[] imgPixels = new byte[VECTOR_DIMENSION];
+            //it copies the pixels straight from the mapped file
+            reader.copyImages(i, 1, imgPixels, 0);
+            //it creates a compound object and puts it at its offset
+            labeledImages[i] = new LabeledImage(reader.label(i), imgPixels);
+            //the mean normalization runs on the decoding threads rather than when Spark first reads the features
+            labeledImages[i].normalizeFeatures();
+        }
+    }
 
-        return labeledImageArrayList;
+    /**
+     * Splits [0, amount) into record aligned ranges and decodes them on a pool of IDX_READER_THREADS threads.
+     */
+    private static void forEachRange(final int amount, final RangeTask task) throws Exception {
+        if (READER_THREADS == 1 || amount <= MIN_RANGE_SIZE) {
+            task.decode(0, amount);
+            return;
+        }
+        final int rangeSize = Math.max(MIN_RANGE_SIZE, (amount + READER_THREADS * RANGES_PER_THREAD - 1)
+                / (READER_THREADS * RANGES_PER_THREAD));
+        final List<Callable<Void>> ranges = new ArrayList<>();
+        for (int from = 0; from < amount; from += rangeSize) {
+            final int start = from;
+            final int end = Math.min(amount, from + rangeSize);
+            ranges.add(() -> {
+                task.decode(start, end);
+                LOGGER.debug("Decoded images " + start + " to " + end);
+                return null;
+            });
+        }
+        final ForkJoinPool pool = new ForkJoinPool(READER_THREADS);
+        try {
+            for (Future<Void> range : pool.invokeAll(ranges)) {
+                range.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
     }
 
-}
\ No newline at end of file
+}
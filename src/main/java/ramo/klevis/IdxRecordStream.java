@@ -0,0 +1,311 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a range of records of a pair of IDX image and label files in chunks. A background thread reads up to
+ * a fixed amount of chunks ahead, so memory stays bounded by chunk size times prefetch whatever the size of the
+ * files. The files are closed once the last chunk has been read or the stream is closed. A failure of the
+ * background thread is thrown by the consumer's next {@link #hasNext}, which never waits for a thread that ended
+ * or a stream that was closed.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class IdxRecordStream implements Iterator<IdxRecordStream.Chunk>, AutoCloseable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(IdxRecordStream.class);
+    private static final Chunk END = new Chunk(0, 0, 0);
+    private static final long POLL_MILLIS = 100;
+
+    private final FileChannel images;
+    private final FileChannel labels;
+    private final IdxHeader header;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> prefetched;
+    private final Thread reader;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private Chunk next;
+
+    /**
+     * Consecutive records read in one go. Pixels are unsigned bytes, one image after the other.
+     */
+    public static final class Chunk {
+        private final int first;
+        private final int count;
+        private final int imageSize;
+        private final byte[] pixels;
+        private final byte[] labels;
+
+        private Chunk(int first, int count, int imageSize) {
+            this.first = first;
+            this.count = count;
+            this.imageSize = imageSize;
+            this.pixels = new byte[count * imageSize];
+            this.labels = new byte[count];
+        }
+
+        /**
+         * @return index of the first record of the chunk in the file
+         */
+        public int first() {
+            return first;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int imageSize() {
+            return imageSize;
+        }
+
+        public byte[] pixels() {
+            return pixels;
+        }
+
+        public byte[] labels() {
+            return labels;
+        }
+
+        public int label(final int index) {
+            return labels[index] & 0xFF;
+        }
+
+        /**
+         * @param index  record inside the chunk
+         * @param offset offset of the pixel inside the image
+         * @return unsigned pixel value between 0 and 255
+         */
+        public int pixel(final int index, final int offset) {
+            return pixels[index * imageSize + offset] & 0xFF;
+        }
+
+        /**
+         * Writes the mean normalized pixels of a record, the same values {@link LabeledImage#getFEATURES()} holds.
+         *
+         * @param index record inside the chunk
+         * @param dst   destination of at least {@link #imageSize()} values
+         */
+        public void normalizedFeatures(final int index, final double[] dst) {
+            for (int i = 0; i < imageSize; i++) {
+                dst[i] = pixel(index, i);
+            }
+            LabeledImage.meanNormalizeFeatures(dst, dst, imageSize);
+        }
+    }
+
+    private IdxRecordStream(FileChannel images, FileChannel labels, IdxHeader header,
+                            int from, int to, int chunkSize, int prefetch) {
+        this.images = images;
+        this.labels = labels;
+        this.header = header;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.prefetched = new ArrayBlockingQueue<>(prefetch);
+        this.reader = new Thread(this::readChunks, "idx-prefetch-" + from);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * @param inputImagePath path of input images
+     * @param inputLabelPath path of input image labels
+     * @param chunkSize      amount of records read in one go
+     * @param prefetch       amount of chunks read ahead of the consumer
+     * @return stream over all records of the files
+     * @throws IOException if a file can not be read or its header is not a valid IDX header
+     */
+    public static IdxRecordStream open(final String inputImagePath, final String inputLabelPath,
+                                       final int chunkSize, final int prefetch) throws IOException {
+        return open(inputImagePath, inputLabelPath, 0, -1, chunkSize, prefetch);
+    }
+
+    /**
+     * @param inputImagePath path of input images
+     * @param inputLabelPath path of input image labels
+     * @param from           index of the first record
+     * @param to             index after the last record, negative for the end of the files
+     * @param chunkSize      amount of records read in one go
+     * @param prefetch       amount of chunks read ahead of the consumer
+     * @return stream over the records in [from, to)
+     * @throws IOException if a file can not be read or its header is not a valid IDX header
+     */
+    public static IdxRecordStream open(final String inputImagePath, final String inputLabelPath,
+                                       final int from, final int to,
+                                       final int chunkSize, final int prefetch) throws IOException {
+        if (chunkSize <= 0 || prefetch <= 0) {
+            throw new IllegalArgumentException("Chunk size and prefetch must be positive");
+        }
+        final FileChannel images = FileChannel.open(Paths.get(inputImagePath), StandardOpenOption.READ);
+        final FileChannel labels;
+        try {
+            labels = FileChannel.open(Paths.get(inputLabelPath), StandardOpenOption.READ);
+        } catch (IOException e) {
+            images.close();
+            throw e;
+        }
+        try {
+            final ByteBuffer imageHeader = ByteBuffer.allocate(IdxHeader.IMAGE_HEADER_SIZE);
+            final ByteBuffer labelHeader = ByteBuffer.allocate(IdxHeader.LABEL_HEADER_SIZE);
+            readFully(images, imageHeader, 0);
+            readFully(labels, labelHeader, 0);
+            final IdxHeader header = IdxHeader.parse(imageHeader, images.size(), inputImagePath,
+                    labelHeader, labels.size(), inputLabelPath);
+            final int end = to < 0 ? header.size : to;
+            if (from < 0 || from > end || end > header.size) {
+                throw new IndexOutOfBoundsException("Range " + from + " to " + end + " out of " + header.size + " images");
+            }
+            return new IdxRecordStream(images, labels, header, from, end, chunkSize, prefetch);
+        } catch (IOException | RuntimeException e) {
+            images.close();
+            labels.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of IDX file");
+            }
+            offset += read;
+        }
+        buffer.flip();
+    }
+
+    private void readChunks() {
+        try {
+            final int imageSize = header.imageSize();
+            for (int first = from; first < to; first += chunkSize) {
+                final Chunk chunk = new Chunk(first, Math.min(chunkSize, to - first), imageSize);
+                readFully(images, ByteBuffer.wrap(chunk.pixels),
+                        IdxHeader.IMAGE_HEADER_SIZE + (long) first * imageSize);
+                readFully(labels, ByteBuffer.wrap(chunk.labels), IdxHeader.LABEL_HEADER_SIZE + (long) first);
+                prefetched.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            closeChannels();
+            putEnd();
+        }
+    }
+
+    /**
+     * Queues the end marker behind the last chunk, unless the stream was closed and nobody takes it anymore.
+     */
+    private void putEnd() {
+        try {
+            while (!closed && !prefetched.offer(END, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                // the consumer has not taken the last chunks yet
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("Stream closed before the end of " + from + " to " + to);
+        }
+    }
+
+    private void closeChannels() {
+        try {
+            images.close();
+            labels.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close IDX files: " + e);
+        }
+    }
+
+    /**
+     * @return amount of records of the streamed range
+     */
+    public int size() {
+        return to - from;
+    }
+
+    public int rows() {
+        return header.rows;
+    }
+
+    public int columns() {
+        return header.columns;
+    }
+
+    public int imageSize() {
+        return header.imageSize();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            throw new IllegalStateException("IDX records " + from + " to " + to + " read after closing the stream");
+        }
+        while (next == null) {
+            try {
+                next = prefetched.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for IDX records", e);
+            }
+            if (next == null && !reader.isAlive()) {
+                // the reader queues the end marker before it ends, unless it was interrupted
+                next = prefetched.poll();
+                if (next == null) {
+                    next = END;
+                }
+            }
+        }
+        if (next == END) {
+            // keep the marker so that the next call does not block
+            if (failure instanceof IOException) {
+                throw new UncheckedIOException((IOException) failure);
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Could not read IDX records " + from + " to " + to, failure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Chunk next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Chunk chunk = next;
+        next = null;
+        return chunk;
+    }
+
+    /**
+     * Stops the background thread and closes the files; the stream can not be read afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+        closeChannels();
+    }
+}
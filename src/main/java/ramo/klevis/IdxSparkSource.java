@@ -0,0 +1,121 @@
+package ramo.klevis;
+
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.ml.linalg.SQLDataTypes;
+import org.apache.spark.ml.linalg.Vectors;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Partitioned Spark source over IDX files. Only the start of every record range is sent to the executors,
+ * each partition streams its own records from the files, so the images never pass through the driver.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class IdxSparkSource {
+
+    private static final int CHUNK_SIZE = 256;
+    private static final int PREFETCH = 2;
+
+    /**
+     * Schema of {@link #rows}, the label and the features columns the perceptron is trained on.
+     */
+    public static final StructType SCHEMA = new StructType(new StructField[]{
+            new StructField("label", DataTypes.DoubleType, false, Metadata.empty()),
+            new StructField("features", SQLDataTypes.VectorType(), false, Metadata.empty())
+    });
+
+    private IdxSparkSource() {
+    }
+
+    /**
+     * Rows of {@link #SCHEMA}, made straight from the bytes of the streamed records without a LabeledImage.
+     *
+     * @param sparkContext   context to create the RDD with
+     * @param inputImagePath path of input images, readable from every executor
+     * @param inputLabelPath path of input image labels, readable from every executor
+     * @param amount         amount of records from the start of the files
+     * @param partitions     amount of partitions
+     * @return rows of the label and the mean normalized features of the records, read lazily by the partitions
+     */
+    public static JavaRDD<Row> rows(final JavaSparkContext sparkContext,
+                                    final String inputImagePath,
+                                    final String inputLabelPath,
+                                    final int amount,
+                                    final int partitions) {
+        final int rangeSize = Math.max(1, (amount + partitions - 1) / partitions);
+        final List<Integer> rangeStarts = new ArrayList<>();
+        for (int from = 0; from < amount; from += rangeSize) {
+            rangeStarts.add(from);
+        }
+        return sparkContext.parallelize(rangeStarts, Math.max(1, rangeStarts.size()))
+                .flatMap(from -> {
+                    final IdxRecordStream stream = IdxRecordStream.open(inputImagePath, inputLabelPath,
+                            from, Math.min(amount, from + rangeSize), CHUNK_SIZE, PREFETCH);
+                    closeWithTask(stream);
+                    return new RowIterator(stream);
+                });
+    }
+
+    /**
+     * Closes the stream when the task ends, also when it stops before the last record, like take, a failure,
+     * a cancellation or a speculative copy that lost; otherwise the prefetch thread would wait forever with both
+     * files open.
+     */
+    private static void closeWithTask(final IdxRecordStream stream) {
+        final TaskContext task = TaskContext.get();
+        // null outside of a Spark task
+        if (task != null) {
+            task.addTaskCompletionListener(context -> stream.close());
+        }
+    }
+
+    /**
+     * Creates the rows of the streamed records one at a time.
+     */
+    private static final class RowIterator implements Iterator<Row> {
+
+        private final IdxRecordStream stream;
+        private IdxRecordStream.Chunk chunk;
+        private int index;
+
+        private RowIterator(IdxRecordStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (chunk == null || index == chunk.count()) {
+                if (!stream.hasNext()) {
+                    return false;
+                }
+                chunk = stream.next();
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final double[] features = new double[chunk.imageSize()];
+            chunk.normalizedFeatures(index, features);
+            return RowFactory.create((double) chunk.label(index++), Vectors.dense(features));
+        }
+    }
+}
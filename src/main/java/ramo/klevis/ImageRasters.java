@@ -0,0 +1,180 @@
+package ramo.klevis;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+/**
+ * Reads and writes whole rows of {@link BufferedImage} rasters instead of single pixels through getRGB and
+ * {@link java.awt.Color}. The packed int and interleaved byte types that ImageIO and Swing produce are copied
+ * out of the raster a row at a time with getDataElements and their channels taken apart with shifts; other
+ * types still go through the color model, but also a row per call.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class ImageRasters {
+
+    private ImageRasters() {
+    }
+
+    /**
+     * @return red, green and blue channel of the image, each a flat plane row by row
+     */
+    public static double[][] readChannels(final BufferedImage image) {
+        final int size = image.getWidth() * image.getHeight();
+        final double[][] channels = new double[3][size];
+        readChannels(image, channels[0], channels[1], channels[2]);
+        return channels;
+    }
+
+    /**
+     * Writes the red, green and blue channel of the image into planes of at least width x height values, with
+     * the values getRGB gives.
+     */
+    public static void readChannels(final BufferedImage image, final double[] red, final double[] green,
+                                    final double[] blue) {
+        final int width = image.getWidth();
+        final RowReader reader = new RowReader(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            final int[] row = reader.read(y);
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                final int pixel = row[x];
+                red[offset + x] = (pixel >> 16) & 0xFF;
+                green[offset + x] = (pixel >> 8) & 0xFF;
+                blue[offset + x] = pixel & 0xFF;
+            }
+        }
+    }
+
+    /**
+     * @return red + green + blue of every pixel, a flat plane row by row
+     */
+    public static double[] readChannelSum(final BufferedImage image) {
+        final double[] sum = new double[image.getWidth() * image.getHeight()];
+        readChannelSum(image, sum);
+        return sum;
+    }
+
+    /**
+     * Writes red + green + blue of every pixel into a plane of at least width x height values, while the row is
+     * decoded, so the three channels never exist as planes.
+     */
+    public static void readChannelSum(final BufferedImage image, final double[] sum) {
+        final int width = image.getWidth();
+        final RowReader reader = new RowReader(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            final int[] row = reader.read(y);
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                final int pixel = row[x];
+                sum[offset + x] = ((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #readChannelSum(BufferedImage, double[])} into a float plane; every sum is exact.
+     */
+    public static void readChannelSum(final BufferedImage image, final float[] sum) {
+        final int width = image.getWidth();
+        final RowReader reader = new RowReader(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            final int[] row = reader.read(y);
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                final int pixel = row[x];
+                sum[offset + x] = ((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #readChannelSum(BufferedImage, double[])} into a short plane, which holds sums up to 765.
+     */
+    public static void readChannelSum(final BufferedImage image, final short[] sum) {
+        final int width = image.getWidth();
+        final RowReader reader = new RowReader(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            final int[] row = reader.read(y);
+            final int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                final int pixel = row[x];
+                sum[offset + x] = (short) (((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF));
+            }
+        }
+    }
+
+    /**
+     * @param gray value in [0, 255]
+     * @return the opaque RGB pixel of that gray, as {@code new Color(gray, gray, gray).getRGB()}
+     */
+    public static int gray(final int gray) {
+        return 0xFF000000 | gray << 16 | gray << 8 | gray;
+    }
+
+    /**
+     * @param rgb packed pixels row by row, as getRGB returns them
+     * @return a TYPE_INT_RGB image holding the pixels, written in one bulk copy
+     */
+    public static BufferedImage toImage(final int[] rgb, final int width, final int height) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.getRaster().setDataElements(0, 0, width, height, rgb);
+        return image;
+    }
+
+    /**
+     * Hands out the rows of an image as packed 0xRRGGBB pixels in a reused buffer.
+     */
+    private static final class RowReader {
+
+        private final BufferedImage image;
+        private final WritableRaster raster;
+        private final int width;
+        private final int[] row;
+        private final byte[] bytes;
+        private final int bands;
+
+        RowReader(final BufferedImage image) {
+            this.image = image;
+            this.raster = image.getRaster();
+            this.width = image.getWidth();
+            this.row = new int[width];
+            this.bands = raster.getNumBands();
+            final int type = image.getType();
+            this.bytes = type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR
+                    ? new byte[width * bands] : null;
+        }
+
+        int[] read(final int y) {
+            switch (image.getType()) {
+                case BufferedImage.TYPE_INT_RGB:
+                case BufferedImage.TYPE_INT_ARGB:
+                    raster.getDataElements(0, y, width, 1, row);
+                    break;
+                case BufferedImage.TYPE_INT_BGR:
+                    raster.getDataElements(0, y, width, 1, row);
+                    // red is in the low byte
+                    for (int x = 0; x < width; x++) {
+                        final int pixel = row[x];
+                        row[x] = (pixel & 0xFF) << 16 | (pixel & 0xFF00) | (pixel >> 16) & 0xFF;
+                    }
+                    break;
+                case BufferedImage.TYPE_3BYTE_BGR:
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                    // the data elements of a pixel come in band order, red, green, blue and then alpha,
+                    // whatever the order of the bytes in memory
+                    raster.getDataElements(0, y, width, 1, bytes);
+                    for (int x = 0, element = 0; x < width; x++, element += bands) {
+                        row[x] = (bytes[element] & 0xFF) << 16 | (bytes[element + 1] & 0xFF) << 8
+                                | bytes[element + 2] & 0xFF;
+                    }
+                    break;
+                default:
+                    image.getRGB(0, y, width, 1, row, 0, width);
+            }
+            return row;
+        }
+    }
+}
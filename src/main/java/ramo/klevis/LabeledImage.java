@@ -15,25 +15,67 @@ import java.io.Serializable;
 
 public class LabeledImage implements Serializable {
     private final double[] PIXELS;
+    // raw 8 bit pixels of the images read from IDX files, an eighth of the doubles in memory and serialized
+    private final byte[] RAW_PIXELS;
+    // pixels of RAW_PIXELS widened on the first call of getPIXELS, not serialized
+    private transient volatile double[] widenedPixels;
     private double label;
-    private final Vector FEATURES;
+    // normalized by the decoding threads of IdxReader, otherwise on first use
+    private volatile Vector FEATURES;
 
     public LabeledImage(int label, double[] pixels) {
-        double[] meanNormalizedPixel = meanNormalizeFeatures(pixels);
         this.PIXELS = pixels;
-        FEATURES = Vectors.dense(meanNormalizedPixel);
+        this.RAW_PIXELS = null;
         this.label = label;
     }
 
+    /**
+     * @param pixels unsigned pixel values, kept as they are
+     */
+    public LabeledImage(int label, byte[] pixels) {
+        this.PIXELS = null;
+        this.RAW_PIXELS = pixels;
+        this.label = label;
+    }
+
+    /**
+     * @return the pixels; images of raw pixels widen them once and return the same array afterwards
+     */
     public double[] getPIXELS() {
-        return PIXELS;
+        if (PIXELS != null) {
+            return PIXELS;
+        }
+        double[] pixels = widenedPixels;
+        if (pixels == null) {
+            pixels = widen();
+            widenedPixels = pixels;
+        }
+        return pixels;
+    }
+
+    private double[] widen() {
+        final double[] pixels = new double[RAW_PIXELS.length];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = RAW_PIXELS[i] & 0xFF;
+        }
+        return pixels;
     }
 
     private double[] meanNormalizeFeatures(double[] pixels) {
+        double[] pixelsNorm = new double[pixels.length];
+        meanNormalizeFeatures(pixels, pixelsNorm, pixels.length);
+        return pixelsNorm;
+    }
+
+    /**
+     * Writes the mean normalized pixels to dst, which may be the pixels array itself.
+     */
+    static void meanNormalizeFeatures(double[] pixels, double[] dst, int length) {
         double min = Double.MAX_VALUE;
         double max = Double.MIN_VALUE;
         double sum = 0;
-        for (double pixel : pixels) {
+        for (int i = 0; i < length; i++) {
+            double pixel = pixels[i];
             sum = sum + pixel;
             if (pixel > max) {
                 max = pixel;
@@ -42,17 +84,38 @@ public class LabeledImage implements Serializable {
                 min = pixel;
             }
         }
-        double mean = sum / pixels.length;
+        double mean = sum / length;
 
-        double[] pixelsNorm = new double[pixels.length];
-        for (int i = 0; i < pixels.length; i++) {
-            pixelsNorm[i] = (pixels[i] - mean) / (max - min);
+        for (int i = 0; i < length; i++) {
+            dst[i] = (pixels[i] - mean) / (max - min);
         }
-        return pixelsNorm;
     }
 
     public Vector getFEATURES() {
-        return FEATURES;
+        Vector features = FEATURES;
+        if (features == null) {
+            features = normalizeFeatures();
+        }
+        return features;
+    }
+
+    /**
+     * Computes the features now rather than on first use.
+     *
+     * @return the features
+     */
+    public Vector normalizeFeatures() {
+        final Vector features;
+        if (PIXELS != null) {
+            features = Vectors.dense(meanNormalizeFeatures(PIXELS));
+        } else {
+            // normalized in place, without keeping the widened pixels
+            final double[] pixels = widen();
+            meanNormalizeFeatures(pixels, pixels, pixels.length);
+            features = Vectors.dense(pixels);
+        }
+        FEATURES = features;
+        return features;
     }
 
     public double getLabel() {
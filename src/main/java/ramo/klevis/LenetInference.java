@@ -0,0 +1,447 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Forward pass of the LeNet network of {@link ConvolutionalNeuralNetwork#train} in plain Java, without ND4J. The
+ * parameters are read once from coefficients.bin of the saved model and kept in flat float arrays: two 5x5
+ * convolutions of 20 and 50 channels, each followed by a 2x2 max pool, and dense layers 800, 128, 64 and 10 with
+ * ReLU and a final softmax.
+ * <p>
+ * The output planes of a convolution keep the row stride of their input, so each kernel value scales one run
+ * over the whole shifted input plane instead of a short run per row; the kernel - 1 columns at the end of each
+ * row are computed but never pooled. The shifted planes are copied into arrays of their own first, one per kernel
+ * value, and the dense weights are kept as one array per input: C2 of JDK 17 only compiles loops to vector
+ * instructions when the arrays are indexed from the same start, not from offsets only known at run time. Every
+ * thread has its own activations, and batches of 16 images or more are split over a pool of CNN_BATCH_THREADS
+ * threads.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class LenetInference implements CnnInference {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(LenetInference.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final int THREADS = batchThreads();
+    private static final int MIN_TASK_IMAGES = 8;
+    private static volatile ForkJoinPool pool;
+
+    private static final String COEFFICIENTS = "coefficients.bin";
+    static final int SIDE = 28;
+    static final int KERNEL = 5;
+    static final int TAPS = KERNEL * KERNEL;
+    static final int CONV1_CHANNELS = 20;
+    static final int CONV1_SIDE = SIDE - KERNEL + 1;
+    static final int POOL1_SIDE = CONV1_SIDE / 2;
+    static final int CONV2_CHANNELS = 50;
+    static final int CONV2_SIDE = POOL1_SIDE - KERNEL + 1;
+    static final int POOL2_SIDE = CONV2_SIDE / 2;
+    static final int[] DENSE = {CONV2_CHANNELS * POOL2_SIDE * POOL2_SIDE, 128, 64, 10};
+
+    final float[] conv1Weights = new float[CONV1_CHANNELS * TAPS];
+    final float[] conv1Bias = new float[CONV1_CHANNELS];
+    final float[] conv2Weights = new float[CONV2_CHANNELS * CONV1_CHANNELS * TAPS];
+    final float[] conv2Bias = new float[CONV2_CHANNELS];
+    /**
+     * Weights of dense layer l, one row of DENSE[l + 1] outputs per input.
+     */
+    final float[][][] denseWeights = new float[DENSE.length - 1][][];
+    final float[][] denseBias = new float[DENSE.length - 1][];
+    private final ThreadLocal<Activations> activations = ThreadLocal.withInitial(Activations::new);
+
+    /**
+     * @param parameters all parameters in the order of the flat parameter vector of MultiLayerNetwork
+     */
+    public LenetInference(float[] parameters) {
+        this(FloatBuffer.wrap(parameters));
+    }
+
+    /**
+     * @param parameters all parameters in the order of the flat parameter vector of MultiLayerNetwork, from the
+     *                   position of the buffer on, which is left unchanged
+     */
+    public LenetInference(FloatBuffer parameters) {
+        if (parameters.remaining() != parameterCount()) {
+            throw new IllegalArgumentException("Expected " + parameterCount() + " parameters of the LeNet network, got "
+                    + parameters.remaining());
+        }
+        final FloatBuffer in = parameters.duplicate();
+        // convolutions hold the bias first and then the weights as [out][in][row][column]
+        in.get(conv1Bias).get(conv1Weights).get(conv2Bias).get(conv2Weights);
+        // dense layers hold the weights first, as [in][out] in column major order, and then the bias
+        for (int layer = 0; layer < denseWeights.length; layer++) {
+            final int inputs = DENSE[layer];
+            final int outputs = DENSE[layer + 1];
+            final float[][] weights = new float[inputs][outputs];
+            final float[] column = new float[inputs];
+            for (int o = 0; o < outputs; o++) {
+                in.get(column);
+                for (int i = 0; i < inputs; i++) {
+                    weights[i][o] = column[i];
+                }
+            }
+            denseWeights[layer] = weights;
+            denseBias[layer] = new float[outputs];
+            in.get(denseBias[layer]);
+        }
+    }
+
+    /**
+     * @return amount of parameters of the network
+     */
+    public static int parameterCount() {
+        int count = CONV1_CHANNELS * (TAPS + 1) + CONV2_CHANNELS * (CONV1_CHANNELS * TAPS + 1);
+        for (int layer = 0; layer + 1 < DENSE.length; layer++) {
+            count += (DENSE[layer] + 1) * DENSE[layer + 1];
+        }
+        return count;
+    }
+
+    /**
+     * @return bytes of the buffers every predicting thread keeps for its forward passes
+     */
+    public static long activationBytes() {
+        return new Activations().values() * Float.BYTES;
+    }
+
+    /**
+     * @return sizes of the input, the channels of both convolutions and the dense layers after the first
+     */
+    public static int[] layers() {
+        return new int[]{SIDE * SIDE, CONV1_CHANNELS, CONV2_CHANNELS, DENSE[1], DENSE[2], DENSE[3]};
+    }
+
+    /**
+     * @param model zip written by ModelSerializer, like TRAINED_MODEL_FILE
+     */
+    public static LenetInference load(File model) throws IOException {
+        final long start = System.nanoTime();
+        final LenetInference inference = new LenetInference(readParameters(model));
+        LOGGER.info("Loaded " + parameterCount() + " parameters from " + model + " in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        return inference;
+    }
+
+    /**
+     * @param snapshot snapshot of the parameters, see {@link ModelSnapshot.Kind#LENET}
+     */
+    public static LenetInference load(ModelSnapshot snapshot) throws IOException {
+        if (snapshot.getKind() != ModelSnapshot.Kind.LENET || !Arrays.equals(snapshot.getLayers(), layers())
+                || snapshot.getParameters() != parameterCount()) {
+            throw new IOException(snapshot + " is no snapshot of the LeNet network " + Arrays.toString(layers()));
+        }
+        return new LenetInference(snapshot.floats());
+    }
+
+    /**
+     * @param model zip written by ModelSerializer, like TRAINED_MODEL_FILE
+     * @return all parameters in the order of the flat parameter vector of MultiLayerNetwork
+     */
+    public static float[] readParameters(File model) throws IOException {
+        try (ZipFile zip = new ZipFile(model)) {
+            final ZipEntry entry = zip.getEntry(COEFFICIENTS);
+            if (entry == null) {
+                throw new IOException("No " + COEFFICIENTS + " in " + model);
+            }
+            final float[] parameters;
+            try (InputStream in = zip.getInputStream(entry)) {
+                parameters = readCoefficients(in);
+            }
+            if (parameters.length != parameterCount()) {
+                throw new IOException(model + " holds " + parameters.length + " parameters, the LeNet network has "
+                        + parameterCount());
+            }
+            return parameters;
+        }
+    }
+
+    /**
+     * Reads an array written by Nd4j.write: its shape information and then its data, each a buffer of
+     * allocation mode, length, data type and the big endian values.
+     *
+     * @return the values of the array in their stored order
+     */
+    static float[] readCoefficients(InputStream stream) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        in.readUTF();
+        final int shapeLength = in.readInt();
+        final String shapeType = in.readUTF();
+        if (!"INT".equals(shapeType)) {
+            throw new IOException("Expected the INT shape of an array, got " + shapeType);
+        }
+        for (int i = 0; i < shapeLength; i++) {
+            in.readInt();
+        }
+        in.readUTF();
+        final int length = in.readInt();
+        final String type = in.readUTF();
+        final float[] values = new float[length];
+        if ("FLOAT".equals(type)) {
+            final byte[] bytes = new byte[length * Float.BYTES];
+            in.readFully(bytes);
+            ByteBuffer.wrap(bytes).asFloatBuffer().get(values);
+        } else if ("DOUBLE".equals(type)) {
+            for (int i = 0; i < length; i++) {
+                values[i] = (float) in.readDouble();
+            }
+        } else {
+            throw new IOException("Unsupported data type " + type);
+        }
+        return values;
+    }
+
+    private static int batchThreads() {
+        final int threads = Integer.parseInt(config.props.getProperty("CNN_BATCH_THREADS", "0").trim());
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static ForkJoinPool pool() {
+        if (pool == null) {
+            synchronized (LenetInference.class) {
+                if (pool == null) {
+                    LOGGER.info("Creating inference pool with " + THREADS + " threads");
+                    pool = new ForkJoinPool(THREADS);
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public Prediction predict(final double[] pixels) {
+        final Activations scratch = activations.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            scratch.input[i] = (float) (pixels[i] / 255d);
+        }
+        return forward(scratch.input, 0, scratch);
+    }
+
+    @Override
+    public Prediction predict(final float[] pixels) {
+        final Activations scratch = activations.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            scratch.input[i] = pixels[i] / 255f;
+        }
+        return forward(scratch.input, 0, scratch);
+    }
+
+    @Override
+    public List<Prediction> predictScaled(final float[] input, final int batchSize) {
+        final Prediction[] predictions = new Prediction[batchSize];
+        forEachTask(batchSize, (from, to) -> {
+            final Activations scratch = activations.get();
+            for (int i = from; i < to; i++) {
+                predictions[i] = forward(input, i * IdxReader.VECTOR_DIMENSION, scratch);
+            }
+        });
+        return new ArrayList<>(Arrays.asList(predictions));
+    }
+
+    interface BatchTask {
+        /**
+         * Predicts images [from, to) of the batch.
+         */
+        void predict(int from, int to);
+    }
+
+    /**
+     * Splits a batch into tasks of at least 8 images on the inference pool, or predicts it on the calling thread
+     * when it is too small to be worth it.
+     */
+    static void forEachTask(final int batchSize, final BatchTask task) {
+        if (THREADS == 1 || batchSize < 2 * MIN_TASK_IMAGES) {
+            task.predict(0, batchSize);
+            return;
+        }
+        final int taskImages = Math.max(MIN_TASK_IMAGES, (batchSize + THREADS - 1) / THREADS);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < batchSize; from += taskImages) {
+            final int start = from;
+            final int end = Math.min(batchSize, from + taskImages);
+            tasks.add(pool().submit(() -> task.predict(start, end)));
+        }
+        for (ForkJoinTask<?> submitted : tasks) {
+            submitted.join();
+        }
+    }
+
+    /**
+     * Runs the forward pass of an image and widens the ranges to the largest absolute values of the pooled
+     * planes of both convolutions and of both hidden layers, in this order.
+     *
+     * @param input pixels scaled to [0, 1]
+     */
+    void calibrate(final float[] input, final int offset, final float[] ranges) {
+        final Activations a = activations.get();
+        forward(input, offset, a);
+        widen(a.pool1, ranges, 0);
+        widen(a.pool2, ranges, 1);
+        widen(a.hidden[0], ranges, 2);
+        widen(a.hidden[1], ranges, 3);
+    }
+
+    private static void widen(final float[] values, final float[] ranges, final int layer) {
+        for (float value : values) {
+            ranges[layer] = Math.max(ranges[layer], Math.abs(value));
+        }
+    }
+
+    private Prediction forward(final float[] input, final int offset, final Activations a) {
+        convolve(input, offset, SIDE, conv1Weights, conv1Bias, CONV1_SIDE, a.conv1Columns, a.conv1);
+        pool(a.conv1, SIDE, CONV1_SIDE, a.pool1);
+        convolve(a.pool1, 0, POOL1_SIDE, conv2Weights, conv2Bias, CONV2_SIDE, a.conv2Columns, a.conv2);
+        pool(a.conv2, POOL1_SIDE, CONV2_SIDE, a.pool2);
+        dense(a.pool2, 0, a.hidden[0]);
+        dense(a.hidden[0], 1, a.hidden[1]);
+        final float[] probabilities = new float[DENSE[DENSE.length - 1]];
+        dense(a.hidden[1], 2, probabilities);
+        softmax(probabilities);
+        return Prediction.of(probabilities);
+    }
+
+    /**
+     * Valid convolution of planes of side x side values into planes of outputSide rows, which keep the row stride
+     * side.
+     *
+     * @param columns one array of run values per input channel and kernel value
+     */
+    private static void convolve(final float[] input, final int offset, final int side, final float[] weights,
+                                 final float[] bias, final int outputSide, final float[][] columns,
+                                 final float[][] output) {
+        // from the first pixel of the first row to the last pixel of the last row of the output
+        final int run = (outputSide - 1) * side + outputSide;
+        final int channels = columns.length / TAPS;
+        for (int c = 0; c < channels; c++) {
+            for (int i = 0; i < KERNEL; i++) {
+                for (int j = 0; j < KERNEL; j++) {
+                    System.arraycopy(input, offset + c * side * side + i * side + j,
+                            columns[c * TAPS + i * KERNEL + j], 0, run);
+                }
+            }
+        }
+        for (int o = 0; o < bias.length; o++) {
+            final float[] out = output[o];
+            Arrays.fill(out, 0, run, bias[o]);
+            // a kernel row of five values per pass, so the output is loaded and stored once for five products
+            for (int r = 0; r < columns.length; r += KERNEL) {
+                final int kernel = o * columns.length + r;
+                final float k0 = weights[kernel];
+                final float k1 = weights[kernel + 1];
+                final float k2 = weights[kernel + 2];
+                final float k3 = weights[kernel + 3];
+                final float k4 = weights[kernel + 4];
+                final float[] x0 = columns[r];
+                final float[] x1 = columns[r + 1];
+                final float[] x2 = columns[r + 2];
+                final float[] x3 = columns[r + 3];
+                final float[] x4 = columns[r + 4];
+                for (int p = 0; p < run; p++) {
+                    out[p] += x0[p] * k0 + x1[p] * k1 + x2[p] * k2 + x3[p] * k3 + x4[p] * k4;
+                }
+            }
+        }
+    }
+
+    /**
+     * 2x2 max pool with stride 2 of planes of side rows with the given stride into planes of (side / 2)^2 values,
+     * one after the other.
+     */
+    private static void pool(final float[][] input, final int stride, final int side, final float[] output) {
+        final int pooled = side / 2;
+        for (int c = 0; c < input.length; c++) {
+            final float[] plane = input[c];
+            for (int y = 0; y < pooled; y++) {
+                final int row = 2 * y * stride;
+                final int out = (c * pooled + y) * pooled;
+                for (int x = 0; x < pooled; x++) {
+                    final int in = row + 2 * x;
+                    output[out + x] = Math.max(Math.max(plane[in], plane[in + 1]),
+                            Math.max(plane[in + stride], plane[in + stride + 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Dense layer, with ReLU unless it is the output layer. Inputs of zero, which ReLU gives often, are skipped.
+     */
+    private void dense(final float[] input, final int layer, final float[] output) {
+        final float[][] weights = denseWeights[layer];
+        final int outputs = output.length;
+        System.arraycopy(denseBias[layer], 0, output, 0, outputs);
+        for (int i = 0; i < weights.length; i++) {
+            final float value = input[i];
+            if (value == 0) {
+                continue;
+            }
+            final float[] row = weights[i];
+            for (int o = 0; o < outputs; o++) {
+                output[o] += value * row[o];
+            }
+        }
+        if (layer + 2 < DENSE.length) {
+            for (int o = 0; o < outputs; o++) {
+                output[o] = Math.max(output[o], 0f);
+            }
+        }
+    }
+
+    private static void softmax(final float[] values) {
+        float max = values[0];
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+        float sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) Math.exp(values[i] - max);
+            sum += values[i];
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] /= sum;
+        }
+    }
+
+    /**
+     * Buffers of one forward pass, reused by a thread for all its images.
+     */
+    private static final class Activations {
+
+        private final float[] input = new float[IdxReader.VECTOR_DIMENSION];
+        private final float[][] conv1Columns = new float[TAPS][(CONV1_SIDE - 1) * SIDE + CONV1_SIDE];
+        private final float[][] conv1 = new float[CONV1_CHANNELS][CONV1_SIDE * SIDE];
+        private final float[] pool1 = new float[CONV1_CHANNELS * POOL1_SIDE * POOL1_SIDE];
+        private final float[][] conv2Columns =
+                new float[CONV1_CHANNELS * TAPS][(CONV2_SIDE - 1) * POOL1_SIDE + CONV2_SIDE];
+        private final float[][] conv2 = new float[CONV2_CHANNELS][CONV2_SIDE * POOL1_SIDE];
+        private final float[] pool2 = new float[DENSE[0]];
+        private final float[][] hidden = {new float[DENSE[1]], new float[DENSE[2]]};
+
+        private long values() {
+            long values = input.length + pool1.length + pool2.length;
+            for (float[][] buffers : new float[][][]{conv1Columns, conv1, conv2Columns, conv2, hidden}) {
+                for (float[] buffer : buffers) {
+                    values += buffer.length;
+                }
+            }
+            return values;
+        }
+    }
+}
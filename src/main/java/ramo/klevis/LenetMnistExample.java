@@ -1,24 +1,10 @@
 package ramo.klevis;
 
-import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
-import org.deeplearning4j.nn.api.OptimizationAlgorithm;
-import org.deeplearning4j.nn.conf.LearningRatePolicy;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
-import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
-import org.deeplearning4j.nn.conf.Updater;
-import org.deeplearning4j.nn.conf.inputs.InputType;
-import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
-import org.deeplearning4j.nn.conf.layers.DenseLayer;
-import org.deeplearning4j.nn.conf.layers.OutputLayer;
-import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
-import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
 import org.deeplearning4j.util.ModelSerializer;
-import org.nd4j.linalg.activations.Activation;
-import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
-import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,120 +22,71 @@ public class LenetMnistExample {
     private static final Logger log = LoggerFactory.getLogger(LenetMnistExample.class);
     private static Configuration config = Configuration.getInstance();
     private static final String output = config.props.getProperty("output");
+    private static final int nEpochs = Integer.parseInt(
+            config.props.getProperty("LENET_EXAMPLE_EPOCHS", "100").trim()); // Number of training epochs
 
+    /**
+     * Usage: LenetMnistExample [hidden layers learning rate batch size], like 128-64 0.01 64 of a trial of
+     * {@link HyperparameterTuner}, {@link HyperParameters#LENET_EXAMPLE} without arguments. The network is
+     * trained with L2 regularization and a learning rate halved after 1000 and divided by ten after 3000
+     * iterations.
+     */
     public static void main(String[] args) throws Exception {
-        int nChannels = 1; // Number of input channels
-        int outputNum = 10; // The number of possible outcomes
-        int batchSize = 64; // Test batch size
-        int nEpochs = 100; // Number of training epochs
-        int iterations = 1; // Number of training iterations
-        int seed = 123;
+        HyperParameters parameters = args.length >= 3
+                ? HyperParameters.parse(args[0], args[1], args[2])
+                : HyperParameters.LENET_EXAMPLE;
+        int batchSize = parameters.getBatchSize();
 
         /* Create an iterator using the batch size for one iteration
          * */
         log.info("Load data....");
-        DataSetIterator mnistTrain = new MnistDataSetIterator(batchSize, true, 12345);
+        MappedIdxReader trainData = MappedIdxReader.open(IdxReader.INPUT_IMAGE_PATH, IdxReader.INPUT_LABEL_PATH);
+        IdxDataSetIterator mnistTrain = new IdxDataSetIterator(trainData, batchSize, trainData.size(), true, 12345, 2);
 
-        /* Construct the neural network */
-        log.info("Build model....");
+        /* Construct the LeNet network the application and the search train, with the L2 regularization and the
+         * learning rate schedule of the original example */
+        log.info("Build model with " + parameters + "....");
 
         /* learning rate schedule in the form of <Iteration #, Learning Rate> */
+        double learningRate = parameters.getLearningRate();
         Map<Integer, Double> lrSchedule = new HashMap<>();
-        lrSchedule.put(0, 0.01);
-        lrSchedule.put(1000, 0.005);
-        lrSchedule.put(3000, 0.001);
-
-        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
-                .seed(seed)
-                .iterations(iterations) // Training iterations as above
-                .regularization(true).l2(0.0005)
-                /* Uncomment the following for learning decay and bias */
-                .learningRate(.01)//.biasLearningRate(0.02)
-                /*
-                    Alternatively, you can use a learning rate schedule.
-                    NOTE: this LR schedule defined here overrides the rate set in .learningRate(). Also,
-                    if you're using the Transfer Learning API, this same override will carry over to
-                    your new model configuration.
-                */
-                .learningRateDecayPolicy(LearningRatePolicy.Schedule)
-                .learningRateSchedule(lrSchedule)
-                /*
-                    Below is an example of using inverse policy rate decay for learning rate
-                */
-                //.learningRateDecayPolicy(LearningRatePolicy.Inverse)
-                //.lrPolicyDecayRate(0.001)
-                //.lrPolicyPower(0.75)
-                .weightInit(WeightInit.XAVIER)
-                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
-                .updater(Updater.NESTEROVS) //To configure: .updater(new Nesterovs(0.9))
-                .list()
-                .layer(0, new ConvolutionLayer.Builder(5, 5)
-                        //nIn and nOut specify depth. nIn here is the nChannels and nOut is the number of filters to be applied
-                        .nIn(nChannels)
-                        .stride(1, 1)
-                        .nOut(20)
-                        .activation(Activation.IDENTITY)
-                        .build())
-                .layer(1, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
-                        .kernelSize(2, 2)
-                        .stride(2, 2)
-                        .build())
-                .layer(2, new ConvolutionLayer.Builder(5, 5)
-                        //Note that nIn need not be specified in later layers
-                        .stride(1, 1)
-                        .nOut(50)
-                        .activation(Activation.IDENTITY)
-                        .build())
-                .layer(3, new SubsamplingLayer.Builder(SubsamplingLayer.PoolingType.MAX)
-                        .kernelSize(2, 2)
-                        .stride(2, 2)
-                        .build())
-                .layer(4, new DenseLayer.Builder().activation(Activation.RELU)
-                        .nOut(500).build())
-                .layer(5, new OutputLayer.Builder(LossFunctions.LossFunction.NEGATIVELOGLIKELIHOOD)
-                        .nOut(outputNum)
-                        .activation(Activation.SOFTMAX)
-                        .build())
-                .setInputType(InputType.convolutionalFlat(28, 28, 1)) //See note below
-                .backprop(true).pretrain(false).build();
-
-        /*
-        Regarding the .setInputType(InputType.convolutionalFlat(28,28,1)) line: This does a few things.
-        (a) It adds preprocessors, which handle things like the transition between the convolutional/subsampling layers
-            and the dense layer
-        (b) Does some additional configuration validation
-        (c) Where necessary, sets the nIn (number of input neurons, or input depth in the case of CNNs) values for each
-            layer based on the size of the previous layer (but it won't override values manually set by the user)
-        InputTypes can be used with other layer types too (RNNs, MLPs etc) not just CNNs.
-        For normal images (when using ImageRecordReader) use InputType.convolutional(height,width,depth).
-        MNIST record reader is a special case, that outputs 28x28 pixel grayscale (nChannels=1) images, in a "flattened"
-        row vector format (i.e., 1x784 vectors), hence the "convolutionalFlat" input type used here.
-        */
+        lrSchedule.put(0, learningRate);
+        lrSchedule.put(1000, learningRate / 2);
+        lrSchedule.put(3000, learningRate / 10);
+        MultiLayerConfiguration conf = ConvolutionalNeuralNetwork.configuration(parameters, 0.0005, lrSchedule);
 
         MultiLayerNetwork model = new MultiLayerNetwork(conf);
         model.init();
 
         log.info("Train model....");
         model.setListeners(new ScoreIterationListener(1));
-        DataSetIterator mnistTest = null;
-        for (int i = 0; i < nEpochs; i++) {
-            model.fit(mnistTrain);
-            log.info("*** Completed epoch {} ***", i);
-            if (mnistTest == null) {
-                mnistTest = new MnistDataSetIterator(10000, false, 12345);
+        IdxDataSetIterator mnistTest = null;
+        try {
+            for (int i = 0; i < nEpochs; i++) {
+                model.fit(mnistTrain);
+                log.info("*** Completed epoch {} ***", i);
+                if (mnistTest == null) {
+                    mnistTest = IdxDataSetIterator.open(IdxReader.INPUT_IMAGE_PATH_TEST_DATA,
+                            IdxReader.INPUT_LABEL_PATH_TEST_DATA, 10000, 10000, false, 12345);
+                }
+                log.info("Evaluate model....");
+                Evaluation eval = model.evaluate(mnistTest);
+                if (eval.accuracy() >= 0.9901) {
+                    /* Where to save the network. Note: the file is in .zip format - can be opened externally */
+                    File locationToSave = new File(output);
+                    /* Updater: i.e., the state for Momentum, RMSProp, Adagrad etc. Save this if you want to train your network more in the future */
+                    ModelSerializer.writeModel(model, locationToSave, true);
+                    log.info("found");
+                    break;
+                }
+                log.info(eval.stats());
+                mnistTest.reset();
             }
-            log.info("Evaluate model....");
-            Evaluation eval = model.evaluate(mnistTest);
-            if (eval.accuracy() >= 0.9901) {
-                /* Where to save the network. Note: the file is in .zip format - can be opened externally */
-                File locationToSave = new File(output);
-                /* Updater: i.e., the state for Momentum, RMSProp, Adagrad etc. Save this if you want to train your network more in the future */
-                ModelSerializer.writeModel(model, locationToSave, true);
-                log.info("found");
-                break;
+        } finally {
+            mnistTrain.close();
+            if (mnistTest != null) {
+                mnistTest.close();
             }
-            log.info(eval.stats());
-            mnistTest.reset();
         }
 
         log.info("****************Example finished********************");
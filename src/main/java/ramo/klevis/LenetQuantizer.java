@@ -0,0 +1,130 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Quantizes the trained convolutional network to 8 bits and reports what it costs and gains. The float network
+ * is read from TRAINED_MODEL_FILE, the activation scales are calibrated on the first QUANTIZE_CALIBRATION_IMAGES
+ * images of the test set and the 8 bit network is written to QUANTIZED_MODEL_FILE, which CNN_ENGINE = INT8
+ * loads. Both networks are then evaluated on the whole test set, like {@link AccuracyCalculator} does during
+ * training, for accuracy, latency of single images and memory of the parameters and of the buffers every
+ * predicting thread keeps.
+ * <p>
+ * Usage: LenetQuantizer [test images]
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class LenetQuantizer {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(LenetQuantizer.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final String TRAINED_MODEL_FILE = config.props.getProperty("TRAINED_MODEL_FILE");
+    private static final String QUANTIZED_MODEL_FILE = config.props.getProperty("QUANTIZED_MODEL_FILE",
+            "resources/cnnTrainedModels/bestModel.int8").trim();
+    private static final int CALIBRATION_IMAGES = Integer.parseInt(
+            config.props.getProperty("QUANTIZE_CALIBRATION_IMAGES", "1000").trim());
+    private static final int TEST_IMAGES = 10000;
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        final int testImages = args.length > 0 ? Integer.parseInt(args[0]) : TEST_IMAGES;
+        final LenetInference model = LenetInference.load(new File(TRAINED_MODEL_FILE));
+        final MnistDataset testDataset = IdxReader.loadTestDataset(testImages);
+
+        final int calibrationImages = Math.min(CALIBRATION_IMAGES, testDataset.size());
+        final float[] calibration = new float[calibrationImages * IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < calibrationImages; i++) {
+            testDataset.scaledPixels(i, calibration, i * IdxReader.VECTOR_DIMENSION);
+        }
+        final File output = new File(QUANTIZED_MODEL_FILE);
+        QuantizedLenet.quantize(model, calibration, calibrationImages).write(output);
+        final QuantizedLenet quantized = QuantizedLenet.load(output);
+        LOGGER.info("Wrote " + output + " of " + output.length() + " bytes");
+
+        final Evaluation floats = evaluate(model, testDataset);
+        final Evaluation int8 = evaluate(quantized, testDataset);
+        final long floatBytes = (long) LenetInference.parameterCount() * Float.BYTES;
+        LOGGER.info(String.format("float: accuracy %.4f, %.1f us per image, %d bytes of parameters, %d bytes of"
+                        + " activations per thread", floats.accuracy, floats.micros, floatBytes,
+                LenetInference.activationBytes()));
+        LOGGER.info(String.format("int8:  accuracy %.4f, %.1f us per image, %d bytes of parameters, %d bytes of"
+                        + " activations per thread", int8.accuracy, int8.micros, quantized.parameterBytes(),
+                QuantizedLenet.activationBytes()));
+        LOGGER.info(String.format("int8 loses %.2f points of accuracy, agrees with float on %.2f%% of %d images,"
+                        + " runs in %.0f%% of the time, with %.0f%% of the parameter memory and %.0f%% of the"
+                        + " memory of one predicting thread",
+                100 * (floats.accuracy - int8.accuracy), 100d * agreement(floats, int8), testDataset.size(),
+                100 * int8.micros / floats.micros, 100d * quantized.parameterBytes() / floatBytes,
+                100d * (quantized.parameterBytes() + QuantizedLenet.activationBytes())
+                        / (floatBytes + LenetInference.activationBytes())));
+    }
+
+    /**
+     * Predicts all images of the data set in batches for the accuracy, then one by one on this thread for the
+     * latency.
+     */
+    private static Evaluation evaluate(CnnInference model, MnistDataset dataset) {
+        final int size = dataset.size();
+        final Evaluation evaluation = new Evaluation(size);
+        final float[] batch = new float[BATCH_SIZE * IdxReader.VECTOR_DIMENSION];
+        int correct = 0;
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            final int count = Math.min(BATCH_SIZE, size - from);
+            for (int i = 0; i < count; i++) {
+                dataset.scaledPixels(from + i, batch, i * IdxReader.VECTOR_DIMENSION);
+            }
+            final List<Prediction> predictions = model.predictScaled(batch, count);
+            for (int i = 0; i < count; i++) {
+                evaluation.labels[from + i] = predictions.get(i).getLabel();
+                if (evaluation.labels[from + i] == dataset.label(from + i)) {
+                    correct++;
+                }
+            }
+        }
+        evaluation.accuracy = size == 0 ? 0 : correct / (double) size;
+
+        final float[] pixels = new float[IdxReader.VECTOR_DIMENSION];
+        // the first pass warms up the JIT
+        for (int pass = 0; pass < 2; pass++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < pixels.length; j++) {
+                    pixels[j] = dataset.pixel(i, j);
+                }
+                model.predict(pixels);
+            }
+            evaluation.micros = size == 0 ? 0 : (System.nanoTime() - start) / 1e3 / size;
+        }
+        return evaluation;
+    }
+
+    private static double agreement(Evaluation first, Evaluation second) {
+        int same = 0;
+        for (int i = 0; i < first.labels.length; i++) {
+            if (first.labels[i] == second.labels[i]) {
+                same++;
+            }
+        }
+        return first.labels.length == 0 ? 1 : same / (double) first.labels.length;
+    }
+
+    /**
+     * Predicted labels, accuracy and latency of a network on a data set.
+     */
+    private static final class Evaluation {
+
+        private final int[] labels;
+        private double accuracy;
+        private double micros;
+
+        private Evaluation(int size) {
+            this.labels = new int[size];
+        }
+    }
+}
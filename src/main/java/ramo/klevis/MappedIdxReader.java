@@ -0,0 +1,188 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader for the IDX image and label files that memory-maps both files and hands out views of the images
+ * instead of copying them. The headers are parsed and validated, see IdxReaderTest and the description of
+ * the data set for the layout.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class MappedIdxReader {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(MappedIdxReader.class);
+
+    public static final int IMAGE_MAGIC_NUMBER = IdxHeader.IMAGE_MAGIC_NUMBER;
+    public static final int LABEL_MAGIC_NUMBER = IdxHeader.LABEL_MAGIC_NUMBER;
+    public static final int IMAGE_HEADER_SIZE = IdxHeader.IMAGE_HEADER_SIZE;
+    public static final int LABEL_HEADER_SIZE = IdxHeader.LABEL_HEADER_SIZE;
+
+    private final ByteBuffer images;
+    private final ByteBuffer labels;
+    private final int size;
+    private final int rows;
+    private final int columns;
+    private final int imageSize;
+
+    private MappedIdxReader(ByteBuffer images, ByteBuffer labels, int size, int rows, int columns) {
+        this.images = images;
+        this.labels = labels;
+        this.size = size;
+        this.rows = rows;
+        this.columns = columns;
+        this.imageSize = rows * columns;
+    }
+
+    /**
+     * @param inputImagePath path of input images
+     * @param inputLabelPath path of input image labels
+     * @return reader over the mapped files
+     * @throws IOException if a file can not be mapped or its header is not a valid IDX header
+     */
+    public static MappedIdxReader open(final String inputImagePath, final String inputLabelPath) throws IOException {
+        final ByteBuffer imageFile = map(inputImagePath);
+        final ByteBuffer labelFile = map(inputLabelPath);
+
+        final IdxHeader header = IdxHeader.parse(imageFile, imageFile.capacity(), inputImagePath,
+                labelFile, labelFile.capacity(), inputLabelPath);
+        LOGGER.debug("Mapped " + header.size + " images of " + header.rows + "x" + header.columns + " pixels");
+
+        return new MappedIdxReader(body(imageFile, IMAGE_HEADER_SIZE), body(labelFile, LABEL_HEADER_SIZE),
+                header.size, header.rows, header.columns);
+    }
+
+    private static ByteBuffer map(final String path) throws IOException {
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("IDX file larger than 2GB can not be mapped: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static ByteBuffer body(final ByteBuffer file, final int headerSize) {
+        final ByteBuffer duplicate = file.duplicate();
+        duplicate.position(headerSize);
+        return duplicate.slice().asReadOnlyBuffer();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int imageSize() {
+        return imageSize;
+    }
+
+    /**
+     * @param index index of the image
+     * @return read only view of the image pixels, nothing is copied
+     */
+    public ByteBuffer image(final int index) {
+        checkIndex(index);
+        return images(index, 1);
+    }
+
+    /**
+     * @param from  index of the first image
+     * @param count amount of consecutive images
+     * @return read only view of the pixels of the images, nothing is copied
+     */
+    public ByteBuffer images(final int from, final int count) {
+        checkRange(from, count);
+        final ByteBuffer view = images.duplicate();
+        view.position(from * imageSize);
+        view.limit((from + count) * imageSize);
+        return view.slice();
+    }
+
+    /**
+     * @param index  index of the image
+     * @param offset offset of the pixel inside the image
+     * @return unsigned pixel value between 0 and 255
+     */
+    public int pixel(final int index, final int offset) {
+        return images.get(index * imageSize + offset) & 0xFF;
+    }
+
+    /**
+     * Copies the pixels of an image scaled to [0, 1], with absolute reads of the mapping.
+     *
+     * @param index  index of the image
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     */
+    public void scaledPixels(final int index, final float[] dst, final int offset) {
+        checkIndex(index);
+        final int start = index * imageSize;
+        for (int i = 0; i < imageSize; i++) {
+            dst[offset + i] = (images.get(start + i) & 0xFF) / 255f;
+        }
+    }
+
+    public int label(final int index) {
+        checkIndex(index);
+        return labels.get(index) & 0xFF;
+    }
+
+    /**
+     * Bulk copies the pixels of consecutive images.
+     *
+     * @param from   index of the first image
+     * @param count  amount of images to copy
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     */
+    public void copyImages(final int from, final int count, final byte[] dst, final int offset) {
+        checkRange(from, count);
+        final ByteBuffer view = images.duplicate();
+        view.position(from * imageSize);
+        view.get(dst, offset, count * imageSize);
+    }
+
+    /**
+     * Bulk copies the labels of consecutive images.
+     *
+     * @param from   index of the first label
+     * @param count  amount of labels to copy
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     */
+    public void copyLabels(final int from, final int count, final byte[] dst, final int offset) {
+        checkRange(from, count);
+        final ByteBuffer view = labels.duplicate();
+        view.position(from);
+        view.get(dst, offset, count);
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + " images");
+        }
+    }
+
+    private void checkRange(final int from, final int count) {
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException("Range " + from + "+" + count + " out of " + size + " images");
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package ramo.klevis;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Forward pass of the perceptron of {@link NeuralNetwork} in plain Java, without Spark. The weights are taken once
+ * from the trained MultilayerPerceptronClassificationModel, through its {@link ModelSnapshot}, and the layers are
+ * computed like Spark does: affine layers with a sigmoid on the hidden ones and a softmax at the end, in double,
+ * on the mean normalized pixels of {@link LabeledImage#getFEATURES}.
+ * <p>
+ * Each affine layer keeps one row of weights per input and images are computed in blocks of 8, so a row is read
+ * once for the whole block and added to the outputs of every image: a matrix-matrix product for batches and a
+ * matrix-vector product for a single image. Like the dense layers of {@link LenetInference}, all arrays of the
+ * inner loop are indexed from 0 so that C2 compiles it to vector instructions. Batches of 16 images or more are
+ * split over the inference pool of CNN_BATCH_THREADS threads.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class MlpInference {
+
+    private static final int BLOCK = 8;
+
+    private final int[] layers;
+    /**
+     * Weights of affine layer l, one row of layers[l + 1] outputs per input.
+     */
+    private final double[][][] weights;
+    private final double[][] bias;
+    private final ThreadLocal<Activations> activations;
+
+    /**
+     * @param layers  sizes of the layers, input first
+     * @param weights the weight vector of the Spark model, from the position of the buffer on, which is left
+     *                unchanged
+     */
+    public MlpInference(int[] layers, DoubleBuffer weights) {
+        if (layers.length < 2 || weights.remaining() != parameterCount(layers)) {
+            throw new IllegalArgumentException("Expected " + parameterCount(layers) + " weights of the perceptron "
+                    + Arrays.toString(layers) + ", got " + weights.remaining());
+        }
+        this.layers = layers.clone();
+        this.weights = new double[layers.length - 1][][];
+        this.bias = new double[layers.length - 1][];
+        final DoubleBuffer in = weights.duplicate();
+        // every affine layer holds its weights as an outputs x inputs matrix in column major order, then the bias
+        for (int layer = 0; layer < this.weights.length; layer++) {
+            final double[][] rows = new double[layers[layer]][layers[layer + 1]];
+            for (double[] row : rows) {
+                in.get(row);
+            }
+            this.weights[layer] = rows;
+            this.bias[layer] = new double[layers[layer + 1]];
+            in.get(this.bias[layer]);
+        }
+        this.activations = ThreadLocal.withInitial(() -> new Activations(this.layers));
+    }
+
+    public MlpInference(int[] layers, double[] weights) {
+        this(layers, DoubleBuffer.wrap(weights));
+    }
+
+    /**
+     * @return amount of weights, biases included, of a perceptron of the given layers
+     */
+    public static int parameterCount(int[] layers) {
+        int count = 0;
+        for (int layer = 0; layer + 1 < layers.length; layer++) {
+            count += (layers[layer] + 1) * layers[layer + 1];
+        }
+        return count;
+    }
+
+    /**
+     * @param snapshot snapshot of the perceptron, see {@link ModelSnapshot.Kind#PERCEPTRON}
+     */
+    public static MlpInference load(ModelSnapshot snapshot) throws IOException {
+        final int[] layers = snapshot.getLayers();
+        if (snapshot.getKind() != ModelSnapshot.Kind.PERCEPTRON || layers.length < 2
+                || layers[0] != IdxReader.VECTOR_DIMENSION || snapshot.getParameters() != parameterCount(layers)) {
+            throw new IOException(snapshot + " is no snapshot of a perceptron of " + IdxReader.VECTOR_DIMENSION
+                    + " inputs");
+        }
+        return new MlpInference(layers, snapshot.doubles());
+    }
+
+    public int[] getLayers() {
+        return layers.clone();
+    }
+
+    /**
+     * @param pixels 784 pixels between 0 and 255, left unchanged
+     * @return prediction of the image
+     */
+    public Prediction predict(final double[] pixels) {
+        final Prediction[] prediction = new Prediction[1];
+        forward(pixels, 0, 1, prediction, activations.get());
+        return prediction[0];
+    }
+
+    /**
+     * @param pixels    pixels between 0 and 255, 784 per image one image after the other, left unchanged
+     * @param batchSize amount of images
+     * @return predictions in the order of the images
+     */
+    public List<Prediction> predictBatch(final double[] pixels, final int batchSize) {
+        final Prediction[] predictions = new Prediction[batchSize];
+        LenetInference.forEachTask(batchSize, (from, to) -> {
+            final Activations scratch = activations.get();
+            for (int start = from; start < to; start += BLOCK) {
+                forward(pixels, start, Math.min(BLOCK, to - start), predictions, scratch);
+            }
+        });
+        return new ArrayList<>(Arrays.asList(predictions));
+    }
+
+    /**
+     * Predicts a block of images [first, first + count).
+     */
+    private void forward(final double[] pixels, final int first, final int count, final Prediction[] predictions,
+                         final Activations a) {
+        final int inputs = layers[0];
+        for (int b = 0; b < count; b++) {
+            final double[] features = a.values[0][b];
+            System.arraycopy(pixels, (first + b) * inputs, features, 0, inputs);
+            LabeledImage.meanNormalizeFeatures(features, features, inputs);
+        }
+        for (int layer = 0; layer < weights.length; layer++) {
+            affine(a.values[layer], layer, a.values[layer + 1], count);
+            if (layer + 1 < weights.length) {
+                for (int b = 0; b < count; b++) {
+                    sigmoid(a.values[layer + 1][b]);
+                }
+            }
+        }
+        for (int b = 0; b < count; b++) {
+            final double[] output = a.values[weights.length][b];
+            predictions[first + b] = Prediction.of(softmax(output));
+        }
+    }
+
+    /**
+     * Outputs of a block of images, each row of weights is added to all images before the next one is read.
+     */
+    private void affine(final double[][] input, final int layer, final double[][] output, final int count) {
+        final double[][] rows = weights[layer];
+        final double[] layerBias = bias[layer];
+        for (int b = 0; b < count; b++) {
+            System.arraycopy(layerBias, 0, output[b], 0, layerBias.length);
+        }
+        for (int i = 0; i < rows.length; i++) {
+            final double[] row = rows[i];
+            for (int b = 0; b < count; b++) {
+                final double value = input[b][i];
+                final double[] sum = output[b];
+                for (int o = 0; o < row.length; o++) {
+                    sum[o] += value * row[o];
+                }
+            }
+        }
+    }
+
+    private static void sigmoid(final double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 / (1 + Math.exp(-values[i]));
+        }
+    }
+
+    private static float[] softmax(final double[] values) {
+        double max = values[0];
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        final double[] exps = new double[values.length];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            exps[i] = Math.exp(values[i] - max);
+            sum += exps[i];
+        }
+        final float[] probabilities = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            probabilities[i] = (float) (exps[i] / sum);
+        }
+        return probabilities;
+    }
+
+    /**
+     * Values of every layer for a block of images, reused by a thread for all its blocks.
+     */
+    private static final class Activations {
+
+        private final double[][][] values;
+
+        private Activations(int[] layers) {
+            values = new double[layers.length][BLOCK][];
+            for (int layer = 0; layer < layers.length; layer++) {
+                for (int b = 0; b < BLOCK; b++) {
+                    values[layer][b] = new double[layers[layer]];
+                }
+            }
+        }
+    }
+}
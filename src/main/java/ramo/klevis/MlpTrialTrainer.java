@@ -0,0 +1,79 @@
+package ramo.klevis;
+
+import org.apache.spark.ml.classification.MultilayerPerceptronClassificationModel;
+import org.apache.spark.ml.classification.MultilayerPerceptronClassifier;
+import org.apache.spark.ml.evaluation.MulticlassClassificationEvaluator;
+import org.apache.spark.ml.linalg.Vector;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+
+/**
+ * Trials of the perceptron of {@link NeuralNetwork}, a round is an iteration of L-BFGS. The train and test rows
+ * are persisted at SPARK_STORAGE_LEVEL once, like {@link NeuralNetwork#train} does, and every trial fits on the
+ * same persisted copy; Spark runs the jobs of parallel trials side by side. A trial continues from the weights its
+ * last round ended with.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class MlpTrialTrainer implements TrialTrainer {
+
+    private final Dataset<Row> train;
+    private final Dataset<Row> test;
+
+    /**
+     * Persists the first images of the IDX files, read by the executors.
+     */
+    public MlpTrialTrainer(SparkSession sparkSession, int trainImages, int testImages) {
+        final int partitions = NeuralNetwork.partitions(sparkSession);
+        this.train = NeuralNetwork.labeledImages(sparkSession, IdxReader.INPUT_IMAGE_PATH,
+                IdxReader.INPUT_LABEL_PATH, trainImages, partitions).persist(NeuralNetwork.STORAGE_LEVEL);
+        this.test = NeuralNetwork.labeledImages(sparkSession, IdxReader.INPUT_IMAGE_PATH_TEST_DATA,
+                IdxReader.INPUT_LABEL_PATH_TEST_DATA, testImages, partitions).persist(NeuralNetwork.STORAGE_LEVEL);
+        // filled here, before trials running at the same time would each compute the rows
+        train.count();
+        test.count();
+    }
+
+    @Override
+    public Trial start(HyperParameters parameters) {
+        return new Trial() {
+            private Vector weights;
+
+            @Override
+            public double train(int rounds) {
+                final MultilayerPerceptronClassifier classifier = NeuralNetwork.classifier(parameters)
+                        .setMaxIter(rounds);
+                if (weights != null) {
+                    classifier.setInitialWeights(weights);
+                }
+                final MultilayerPerceptronClassificationModel model = classifier.fit(train);
+                weights = model.weights();
+                return new MulticlassClassificationEvaluator()
+                        .setMetricName("accuracy")
+                        .evaluate(model.transform(test).select("prediction", "label"));
+            }
+
+            @Override
+            public long parameterBytes() {
+                return (long) MlpInference.parameterCount(parameters.layers(IdxReader.VECTOR_DIMENSION))
+                        * Double.BYTES;
+            }
+
+            @Override
+            public void close() {
+                weights = null;
+            }
+        };
+    }
+
+    /**
+     * Drops the persisted rows.
+     */
+    public void unpersist() {
+        train.unpersist();
+        test.unpersist();
+    }
+}
@@ -0,0 +1,124 @@
+package ramo.klevis;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Columnar store for a labelled image data set. The pixels of all images are kept as unsigned bytes in one
+ * contiguous buffer, on heap or off heap, and the labels in a byte array. Pixels are only scaled to [0, 1] when
+ * a row is read for the convolutional network.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class MnistDataset {
+
+    private final ByteBuffer pixels;
+    private final byte[] labels;
+    private final int size;
+    private final int imageSize;
+
+    private MnistDataset(ByteBuffer pixels, byte[] labels, int size, int imageSize) {
+        this.pixels = pixels;
+        this.labels = labels;
+        this.size = size;
+        this.imageSize = imageSize;
+    }
+
+    /**
+     * @param size      amount of images
+     * @param imageSize amount of pixels of an image
+     * @param offHeap   whether the pixels are kept in a direct buffer
+     * @return empty data set to be filled with {@link #copyFrom}
+     */
+    public static MnistDataset allocate(final int size, final int imageSize, final boolean offHeap) {
+        final long bytes = (long) size * imageSize;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Data set of " + bytes + " bytes does not fit in a single buffer");
+        }
+        final ByteBuffer pixels = offHeap ? ByteBuffer.allocateDirect((int) bytes) : ByteBuffer.allocate((int) bytes);
+        return new MnistDataset(pixels, new byte[size], size, imageSize);
+    }
+
+    /**
+     * @param reader  mapped IDX files
+     * @param amount  amount of images to copy from the start of the files
+     * @param offHeap whether the pixels are kept in a direct buffer
+     * @return data set holding a copy of the first images
+     */
+    public static MnistDataset copyOf(final MappedIdxReader reader, final int amount, final boolean offHeap) {
+        final MnistDataset dataset = allocate(amount, reader.imageSize(), offHeap);
+        dataset.copyFrom(reader, 0, amount);
+        return dataset;
+    }
+
+    /**
+     * Copies consecutive images of the mapped files to the same rows of this data set. Disjoint ranges can be
+     * copied from different threads.
+     *
+     * @param reader mapped IDX files
+     * @param from   index of the first image
+     * @param count  amount of images
+     */
+    public void copyFrom(final MappedIdxReader reader, final int from, final int count) {
+        if (from < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException("Range " + from + "+" + count + " out of " + size + " images");
+        }
+        final ByteBuffer target = pixels.duplicate();
+        target.position(from * imageSize);
+        target.put(reader.images(from, count));
+        reader.copyLabels(from, count, labels, from);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int imageSize() {
+        return imageSize;
+    }
+
+    public int label(final int index) {
+        checkIndex(index);
+        return labels[index] & 0xFF;
+    }
+
+    /**
+     * @param index  row of the image
+     * @param offset offset of the pixel inside the image
+     * @return unsigned pixel value between 0 and 255
+     */
+    public int pixel(final int index, final int offset) {
+        return pixels.get(index * imageSize + offset) & 0xFF;
+    }
+
+    /**
+     * Writes the pixels of an image scaled to [0, 1], the input the convolutional network is trained on.
+     *
+     * @param index  row of the image
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     */
+    public void scaledPixels(final int index, final float[] dst, final int offset) {
+        checkIndex(index);
+        final int start = index * imageSize;
+        for (int i = 0; i < imageSize; i++) {
+            dst[offset + i] = (pixels.get(start + i) & 0xFF) / 255f;
+        }
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + " images");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MnistDataset{" +
+                "size=" + size +
+                ", imageSize=" + imageSize +
+                ", offHeap=" + pixels.isDirect() +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Parameters of a trained network in a compact binary file that is memory mapped instead of parsed. A snapshot
+ * is a header of 64 bytes and the parameters in one flat blob of little endian floats or doubles, in the order
+ * the network keeps them. The header holds the magic number, the format version, the kind of network, the size
+ * of a parameter, the amount of parameters and up to eight layer sizes.
+ * <p>
+ * The networks read their parameters straight from the mapped blob with bulk gets, so loading costs a copy of
+ * the file from the page cache and no decompression, parsing or Spark session.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class ModelSnapshot {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ModelSnapshot.class);
+    private static final int MAGIC = 0x44525336;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAX_LAYERS = 8;
+
+    public enum Kind {
+        /**
+         * {@link LenetInference}, floats in the order of the flat parameter vector of MultiLayerNetwork.
+         */
+        LENET,
+        /**
+         * The perceptron of {@link NeuralNetwork}, doubles in the order of the weight vector of Spark.
+         */
+        PERCEPTRON
+    }
+
+    private final Kind kind;
+    private final int[] layers;
+    private final int parameterBytes;
+    private final int parameters;
+    private final ByteBuffer blob;
+
+    private ModelSnapshot(Kind kind, int[] layers, int parameterBytes, int parameters, ByteBuffer blob) {
+        this.kind = kind;
+        this.layers = layers;
+        this.parameterBytes = parameterBytes;
+        this.parameters = parameters;
+        this.blob = blob;
+    }
+
+    /**
+     * Maps a snapshot file; the mapping stays valid after the file is closed.
+     */
+    public static ModelSnapshot map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is too short for a model snapshot");
+            }
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException(file + " is no model snapshot");
+            }
+            final int version = mapped.getInt(4);
+            if (version != VERSION) {
+                throw new IOException(file + " is a model snapshot of version " + version + ", expected " + VERSION);
+            }
+            final int kind = mapped.getInt(8);
+            if (kind < 0 || kind >= Kind.values().length) {
+                throw new IOException(file + " holds an unknown kind of network " + kind);
+            }
+            final int parameterBytes = mapped.getInt(12);
+            final int parameters = mapped.getInt(16);
+            final int layerCount = mapped.getInt(20);
+            if ((parameterBytes != Float.BYTES && parameterBytes != Double.BYTES) || layerCount < 0
+                    || layerCount > MAX_LAYERS || HEADER_BYTES + (long) parameters * parameterBytes != channel.size()) {
+                throw new IOException(file + " has a broken header");
+            }
+            final int[] layers = new int[layerCount];
+            for (int i = 0; i < layers.length; i++) {
+                layers[i] = mapped.getInt(24 + i * Integer.BYTES);
+            }
+            mapped.position(HEADER_BYTES);
+            final ByteBuffer blob = mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+            return new ModelSnapshot(Kind.values()[kind], layers, parameterBytes, parameters, blob);
+        }
+    }
+
+    /**
+     * @param snapshot snapshot written from the source
+     * @param source   trained model the snapshot was converted from
+     * @return true when the snapshot exists and was written after the source was last changed
+     */
+    public static boolean isUpToDate(File snapshot, File source) {
+        return snapshot.isFile() && (!source.exists() || snapshot.lastModified() >= source.lastModified());
+    }
+
+    public static void write(File file, Kind kind, int[] layers, float[] parameters) throws IOException {
+        final ByteBuffer buffer = header(kind, layers, Float.BYTES, parameters.length);
+        buffer.asFloatBuffer().put(parameters);
+        write(file, buffer);
+    }
+
+    public static void write(File file, Kind kind, int[] layers, double[] parameters) throws IOException {
+        final ByteBuffer buffer = header(kind, layers, Double.BYTES, parameters.length);
+        buffer.asDoubleBuffer().put(parameters);
+        write(file, buffer);
+    }
+
+    private static ByteBuffer header(Kind kind, int[] layers, int parameterBytes, int parameters) {
+        if (layers.length > MAX_LAYERS) {
+            throw new IllegalArgumentException("At most " + MAX_LAYERS + " layers, got " + layers.length);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + parameters * parameterBytes)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(kind.ordinal()).putInt(parameterBytes).putInt(parameters)
+                .putInt(layers.length);
+        for (int layer : layers) {
+            buffer.putInt(layer);
+        }
+        buffer.position(HEADER_BYTES);
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes a file next to the snapshot and moves it over the old one, so a process that mapped the old snapshot
+     * keeps reading it rather than a truncated file.
+     */
+    private static void write(File file, ByteBuffer parameters) throws IOException {
+        // the slice shares the array of the whole buffer, header included
+        final ByteBuffer whole = ByteBuffer.wrap(parameters.array());
+        final Path target = file.toPath().toAbsolutePath();
+        final Path written = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (whole.hasRemaining()) {
+                channel.write(whole);
+            }
+        }
+        Files.move(written, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Wrote snapshot " + file + " of " + whole.capacity() + " bytes");
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int[] getLayers() {
+        return layers.clone();
+    }
+
+    public int getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the parameters of a snapshot of floats, a view of the mapped file
+     */
+    public FloatBuffer floats() {
+        if (parameterBytes != Float.BYTES) {
+            throw new IllegalStateException("Snapshot of " + kind + " holds doubles");
+        }
+        return blob.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * @return the parameters of a snapshot of doubles, a view of the mapped file
+     */
+    public DoubleBuffer doubles() {
+        if (parameterBytes != Double.BYTES) {
+            throw new IllegalStateException("Snapshot of " + kind + " holds floats");
+        }
+        return blob.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return "ModelSnapshot{" +
+                "kind=" + kind +
+                ", layers=" + Arrays.toString(layers) +
+                ", parameters=" + parameters +
+                '}';
+    }
+}
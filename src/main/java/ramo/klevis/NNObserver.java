@@ -8,4 +8,16 @@ package ramo.klevis;
  */
 public interface NNObserver {
 	int update(LabeledImage labeledImage);
+
+	/**
+	 * @param pixels 784 pixels between 0 and 255, row by row
+	 * @return predicted digit
+	 */
+	default int update(float[] pixels) {
+		double[] doublePixels = new double[pixels.length];
+		for (int i = 0; i < pixels.length; i++) {
+			doublePixels[i] = pixels[i];
+		}
+		return update(new LabeledImage(0, doublePixels));
+	}
 }
@@ -1,15 +1,22 @@
 package ramo.klevis;
 
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.ml.classification.MultilayerPerceptronClassificationModel;
 import org.apache.spark.ml.classification.MultilayerPerceptronClassifier;
 import org.apache.spark.ml.evaluation.MulticlassClassificationEvaluator;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SparkSession;
+import org.apache.spark.storage.StorageLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 /**
  * @author Klevis Ramo
@@ -21,56 +28,160 @@ public class NeuralNetwork {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(NeuralNetwork.class);
     private static final Configuration config = Configuration.getInstance();
+    private static final String SNAPSHOT_FILE = config.props.getProperty("NN_SNAPSHOT_FILE",
+            "resources/nnTrainedModels/ModelWith60000.snapshot").trim();
+    private static final int WARMUP_PREDICTIONS = Integer.parseInt(
+            config.props.getProperty("WARMUP_PREDICTIONS", "1000").trim());
+    private static final String SPARK_MASTER = config.props.getProperty("SPARK_MASTER", "local[*]").trim();
+    private static final int SPARK_PARTITIONS = Integer.parseInt(
+            config.props.getProperty("SPARK_PARTITIONS", "0").trim());
+    static final StorageLevel STORAGE_LEVEL = StorageLevel.fromString(
+            config.props.getProperty("SPARK_STORAGE_LEVEL", "MEMORY_ONLY").trim());
 
     private SparkSession sparkSession;
-    private MultilayerPerceptronClassificationModel model;
+    private volatile MlpInference inference;
     private static NeuralNetwork instance;
 
     protected NeuralNetwork() {
         // Protected default constructor for singleton class.
     }
 
-    public static NeuralNetwork getInstance() {
+    public static synchronized NeuralNetwork getInstance() {
         if (NeuralNetwork.instance == null) {
             NeuralNetwork.instance = new NeuralNetwork();
         }
         return NeuralNetwork.instance;
     }
 
+    /**
+     * Loads the {@link ModelSnapshot} of NN_SNAPSHOT_FILE without Spark when {@link SnapshotConverter} wrote one,
+     * else the saved model of TRAINED_MODEL with a Spark session, and warms up the prediction. Predictions run on
+     * {@link MlpInference} either way.
+     */
     public void init() {
+        if (inference == null) {
+            final long start = System.nanoTime();
+            final File snapshot = new File(SNAPSHOT_FILE);
+            if (snapshot.isFile()) {
+                LOGGER.info("Loading the Neural Network from snapshot " + snapshot + " ... ");
+                inference = loadSnapshot(snapshot);
+            } else {
+                initSparkSession();
+                LOGGER.info("Loading the Neural Network from saved model ... ");
+                final MultilayerPerceptronClassificationModel model = loadSavedModel();
+                inference = new MlpInference(model.layers(), model.weights().toArray());
+            }
+            LOGGER.info("Loading is done in " + (System.nanoTime() - start) / 1000000 + " ms");
+            warmUp();
+        }
+    }
+
+    private static MultilayerPerceptronClassificationModel loadSavedModel() {
+        return MultilayerPerceptronClassificationModel.load(config.props.getProperty("TRAINED_MODEL"));
+    }
+
+    private static MlpInference loadSnapshot(File file) {
+        try {
+            return MlpInference.load(ModelSnapshot.map(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the saved model of TRAINED_MODEL as a {@link ModelSnapshot} of doubles, in the order of the weight
+     * vector of Spark.
+     */
+    public void writeSnapshot(File file) throws IOException {
         initSparkSession();
-        if (model == null) {
-            LOGGER.info("Loading the Neural Network from saved model ... ");
-            model = MultilayerPerceptronClassificationModel.load(config.props.getProperty("TRAINED_MODEL"));
-            LOGGER.info("Loading from saved model is done");
+        final MultilayerPerceptronClassificationModel savedModel = loadSavedModel();
+        ModelSnapshot.write(file, ModelSnapshot.Kind.PERCEPTRON, savedModel.layers(), savedModel.weights().toArray());
+        LOGGER.info("Wrote the perceptron " + Arrays.toString(savedModel.layers()) + " to " + file);
+    }
+
+    private void warmUp() {
+        final long start = System.nanoTime();
+        final Random random = new Random(IdxReader.VECTOR_DIMENSION);
+        final double[] pixels = new double[IdxReader.VECTOR_DIMENSION];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(4) == 0 ? random.nextInt(256) : 0;
+        }
+        for (int i = 0; i < WARMUP_PREDICTIONS; i++) {
+            inference.predict(pixels);
         }
+        LOGGER.info(WARMUP_PREDICTIONS + " warm up predictions took " + (System.nanoTime() - start) / 1000000 + " ms");
     }
 
+    /**
+     * Trains on the cluster of SPARK_MASTER, the executors read their own record ranges of the IDX files in
+     * SPARK_PARTITIONS partitions, or in as many as the default parallelism of the cluster with 0. The trained
+     * weights replace the snapshot of NN_SNAPSHOT_FILE, so the next {@link #init} loads them rather than the
+     * weights from before.
+     */
     public void train(final Integer trainData, final Integer testFieldValue) {
 
         initSparkSession();
 
-        final List<LabeledImage> labeledImages = IdxReader.loadData(trainData);
-        final List<LabeledImage> testLabeledImages = IdxReader.loadTestData(testFieldValue);
-
-        final Dataset<Row> train = sparkSession.createDataFrame(labeledImages, LabeledImage.class).checkpoint();
-        final Dataset<Row> test = sparkSession.createDataFrame(testLabeledImages, LabeledImage.class).checkpoint();
+        final int partitions = partitions(sparkSession);
+        LOGGER.info("Training on " + SPARK_MASTER + " with " + partitions + " partitions");
+        // kept at SPARK_STORAGE_LEVEL by the first pass of the optimizer, every later pass reads them from there
+        final Dataset<Row> train = labeledImages(sparkSession, IdxReader.INPUT_IMAGE_PATH,
+                IdxReader.INPUT_LABEL_PATH, trainData, partitions).persist(STORAGE_LEVEL);
+        final Dataset<Row> test = labeledImages(sparkSession, IdxReader.INPUT_IMAGE_PATH_TEST_DATA,
+                IdxReader.INPUT_LABEL_PATH_TEST_DATA, testFieldValue, partitions).persist(STORAGE_LEVEL);
+
+        final MultilayerPerceptronClassifier trainer = classifier(HyperParameters.PERCEPTRON).setMaxIter(100);
+
+        final MultilayerPerceptronClassificationModel model = trainer.fit(train);
+        final double[] weights = model.weights().toArray();
+        inference = new MlpInference(model.layers(), weights);
+        try {
+            ModelSnapshot.write(new File(SNAPSHOT_FILE), ModelSnapshot.Kind.PERCEPTRON, model.layers(), weights);
+        } catch (IOException e) {
+            // a snapshot of the weights from before must not be loaded next time either
+            LOGGER.error("Could not write the trained perceptron to " + SNAPSHOT_FILE + ", deleting it", e);
+            new File(SNAPSHOT_FILE).delete();
+        }
 
-        final int[] layers = new int[]{784, 128, 64, 10};
+        evalOnTest(model, test);
+        evalOnTest(model, train);
+        train.unpersist();
+        test.unpersist();
+    }
 
-        final MultilayerPerceptronClassifier trainer = new MultilayerPerceptronClassifier()
-                .setLayers(layers)
-                .setBlockSize(128)
-                .setSeed(1234L)
-                .setMaxIter(100);
+    /**
+     * @return untrained perceptron of the hyperparameters, whose learning rate L-BFGS does not use
+     */
+    public static MultilayerPerceptronClassifier classifier(final HyperParameters parameters) {
+        return new MultilayerPerceptronClassifier()
+                .setLayers(parameters.layers(IdxReader.VECTOR_DIMENSION))
+                .setBlockSize(parameters.getBatchSize())
+                .setSeed(1234L);
+    }
 
-        model = trainer.fit(train);
+    /**
+     * @return SPARK_PARTITIONS, or the default parallelism of the cluster with 0
+     */
+    static int partitions(final SparkSession sparkSession) {
+        return SPARK_PARTITIONS > 0 ? SPARK_PARTITIONS : sparkSession.sparkContext().defaultParallelism();
+    }
 
-        evalOnTest(test);
-        evalOnTest(train);
+    /**
+     * Every partition streams its own records from the IDX files, nothing is collected on the driver. Relative
+     * paths are resolved on the driver first, since executors run in working directories of their own.
+     *
+     * @param amount amount of records from the start of the files
+     * @return labelled images of the records as rows of {@link IdxSparkSource#SCHEMA}
+     */
+    public static Dataset<Row> labeledImages(final SparkSession sparkSession, final String inputImagePath,
+                                             final String inputLabelPath, final int amount, final int partitions) {
+        final JavaSparkContext sparkContext = JavaSparkContext.fromSparkContext(sparkSession.sparkContext());
+        return sparkSession.createDataFrame(IdxSparkSource.rows(sparkContext,
+                new File(inputImagePath).getAbsolutePath(), new File(inputLabelPath).getAbsolutePath(),
+                amount, partitions), IdxSparkSource.SCHEMA);
     }
 
-    private void evalOnTest(final Dataset<Row> test) {
+    private static void evalOnTest(final MultilayerPerceptronClassificationModel model, final Dataset<Row> test) {
         final Dataset<Row> result = model.transform(test);
         final Dataset<Row> predictionAndLabels = result.select("prediction", "label");
         final MulticlassClassificationEvaluator evaluator = new MulticlassClassificationEvaluator()
@@ -81,17 +192,35 @@ public class NeuralNetwork {
 
     private void initSparkSession() {
         if (sparkSession == null) {
-            sparkSession = SparkSession.builder()
-                    .master("local[*]")
-                    .appName("Digit Recognizer")
-                    .getOrCreate();
+            sparkSession = createSparkSession();
         }
-        sparkSession.sparkContext().setCheckpointDir("checkPoint");
+    }
+
+    static SparkSession createSparkSession() {
+        return SparkSession.builder()
+                .master(SPARK_MASTER)
+                .appName("Digit Recognizer")
+                .getOrCreate();
     }
 
     public LabeledImage predict(final LabeledImage labeledImage) {
-        final double predict = model.predict(labeledImage.getFEATURES());
-        labeledImage.setLabel(predict);
+        labeledImage.setLabel(inference.predict(labeledImage.getPIXELS()).getLabel());
         return labeledImage;
     }
+
+    /**
+     * Predicts all images in one batch and sets their labels.
+     */
+    public List<LabeledImage> predict(final List<LabeledImage> labeledImages) {
+        final int dimension = IdxReader.VECTOR_DIMENSION;
+        final double[] pixels = new double[labeledImages.size() * dimension];
+        for (int i = 0; i < labeledImages.size(); i++) {
+            System.arraycopy(labeledImages.get(i).getPIXELS(), 0, pixels, i * dimension, dimension);
+        }
+        final List<Prediction> predictions = inference.predictBatch(pixels, labeledImages.size());
+        for (int i = 0; i < labeledImages.size(); i++) {
+            labeledImages.get(i).setLabel(predictions.get(i).getLabel());
+        }
+        return labeledImages;
+    }
 }
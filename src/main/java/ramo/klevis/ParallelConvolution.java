@@ -0,0 +1,150 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Padded convolution of several channel planes summed into one plane, on a pool of CONVOLUTION_THREADS
+ * threads. The output rows are split into tiles; a tile reads its rows of every channel plus the halo of
+ * kernelHeight - 1 rows below them straight from the shared input planes, so nothing is copied. The first
+ * channel is convolved into the output and the others are added while the tile is still in the cache, so the
+ * channels are summed in the same pass instead of a separate one over three full planes. The sum is formed in
+ * channel order, giving exactly the doubles of convolving the channels one after the other and adding them.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class ParallelConvolution {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ParallelConvolution.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final int THREADS = convolutionThreads();
+    private static final int MIN_TILE_ROWS = 16;
+    private static final int TILES_PER_THREAD = 4;
+    private static volatile ForkJoinPool pool;
+
+    private ParallelConvolution() {
+    }
+
+    private static int convolutionThreads() {
+        final int threads = Integer.parseInt(config.props.getProperty("CONVOLUTION_THREADS", "0").trim());
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static ForkJoinPool pool() {
+        if (pool == null) {
+            synchronized (ParallelConvolution.class) {
+                if (pool == null) {
+                    LOGGER.info("Creating convolution pool with " + THREADS + " threads");
+                    pool = new ForkJoinPool(THREADS);
+                }
+            }
+        }
+        return pool;
+    }
+
+    interface TileTask {
+        /**
+         * Writes the summed convolution of output rows [from, to) of the valid convolution.
+         */
+        void convolve(int from, int to);
+    }
+
+    /**
+     * @param channels planes of width x height values, row by row
+     * @param kernel   kernel row by row
+     * @param output   width x height values, written like {@link FlatConvolution#convolvePadded}
+     */
+    public static void convolvePadded(final double[][] channels, final int width, final int height,
+                                      final double[] kernel, final int kernelWidth, final int kernelHeight,
+                                      final double[] output) {
+        final int offset = (kernelHeight / 2) * width + kernelWidth / 2;
+        final int outputWidth = width - kernelWidth + 1;
+        forEachTile(height - kernelHeight + 1, (from, to) -> {
+            final int rows = to - from;
+            final double[] tile = new double[rows * outputWidth];
+            for (int channel = 0; channel < channels.length; channel++) {
+                if (channel == 0) {
+                    FlatConvolution.convolve(channels[0], from * width, width, width, rows + kernelHeight - 1,
+                            kernel, kernelWidth, kernelHeight, output, offset + from * width, width);
+                } else {
+                    FlatConvolution.convolve(channels[channel], from * width, width, width,
+                            rows + kernelHeight - 1, kernel, kernelWidth, kernelHeight, tile, 0, outputWidth);
+                    add(tile, output, offset + from * width, width, rows, outputWidth);
+                }
+            }
+        });
+        FlatConvolution.clearBorder(output, width, height, kernelWidth, kernelHeight);
+    }
+
+    /**
+     * Like {@link #convolvePadded} with the separable kernel column x row, see
+     * {@link FlatConvolution#convolveSeparablePadded}.
+     */
+    public static void convolveSeparablePadded(final double[][] channels, final int width, final int height,
+                                               final double[] column, final double[] row,
+                                               final double[] output) {
+        final int kernelHeight = column.length;
+        final int kernelWidth = row.length;
+        final int offset = (kernelHeight / 2) * width + kernelWidth / 2;
+        final int outputWidth = width - kernelWidth + 1;
+        forEachTile(height - kernelHeight + 1, (from, to) -> {
+            final int rows = to - from;
+            final double[] scratch = new double[rows * width];
+            final double[] tile = new double[rows * outputWidth];
+            for (int channel = 0; channel < channels.length; channel++) {
+                if (channel == 0) {
+                    FlatConvolution.convolveSeparable(channels[0], from * width, width, width,
+                            rows + kernelHeight - 1, column, row, scratch, output, offset + from * width, width);
+                } else {
+                    FlatConvolution.convolveSeparable(channels[channel], from * width, width, width,
+                            rows + kernelHeight - 1, column, row, scratch, tile, 0, outputWidth);
+                    add(tile, output, offset + from * width, width, rows, outputWidth);
+                }
+            }
+        });
+        FlatConvolution.clearBorder(output, width, height, kernelWidth, kernelHeight);
+    }
+
+    private static void add(final double[] tile, final double[] output, final int offset, final int stride,
+                            final int rows, final int columns) {
+        for (int y = 0; y < rows; y++) {
+            final int in = y * columns;
+            final int out = offset + y * stride;
+            for (int x = 0; x < columns; x++) {
+                output[out + x] += tile[in + x];
+            }
+        }
+    }
+
+    /**
+     * Splits [0, rows) into tiles and convolves them on the pool, or on the calling thread when the image is
+     * too small to be worth it.
+     */
+    static void forEachTile(final int rows, final TileTask task) {
+        if (rows <= 0) {
+            return;
+        }
+        if (THREADS == 1 || rows < 2 * MIN_TILE_ROWS) {
+            task.convolve(0, rows);
+            return;
+        }
+        final int tileRows = Math.max(MIN_TILE_ROWS, (rows + THREADS * TILES_PER_THREAD - 1)
+                / (THREADS * TILES_PER_THREAD));
+        final List<ForkJoinTask<?>> tiles = new ArrayList<>();
+        for (int from = 0; from < rows; from += tileRows) {
+            final int start = from;
+            final int end = Math.min(rows, from + tileRows);
+            tiles.add(pool().submit(() -> task.convolve(start, end)));
+        }
+        for (ForkJoinTask<?> tile : tiles) {
+            tile.join();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ramo.klevis;
+
+/**
+ * Number format pixels are convolved in. Pixels are 8 bit, so double carries far more than they hold: float
+ * represents every sum of integer pixels and small integer kernel values exactly, and a 16 bit short holds the
+ * sum of the three channels of a pixel.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public enum Precision {
+    /**
+     * double planes, per channel or summed, the original pipeline
+     */
+    DOUBLE,
+    /**
+     * float plane of the summed channels, half the memory traffic of double
+     */
+    FLOAT,
+    /**
+     * short plane of the summed channels convolved with int kernels into int sums, for kernels of integers;
+     * other kernels fall back to float
+     */
+    FIXED;
+
+    /**
+     * @param name name of a constant in any case, with surrounding whitespace
+     */
+    public static Precision parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,55 @@
+package ramo.klevis;
+
+import java.util.Arrays;
+
+/**
+ * Predicted digit of an image together with the softmax probabilities of all digits.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class Prediction {
+
+    private final int label;
+    private final float[] probabilities;
+
+    public Prediction(int label, float[] probabilities) {
+        this.label = label;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * @param probabilities softmax output of the network, one value per digit
+     * @return prediction of the most probable digit
+     */
+    public static Prediction of(float[] probabilities) {
+        int label = 0;
+        for (int i = 1; i < probabilities.length; i++) {
+            if (probabilities[i] > probabilities[label]) {
+                label = i;
+            }
+        }
+        return new Prediction(label, probabilities);
+    }
+
+    public int getLabel() {
+        return label;
+    }
+
+    public float[] getProbabilities() {
+        return probabilities;
+    }
+
+    public float getProbability() {
+        return probabilities[label];
+    }
+
+    @Override
+    public String toString() {
+        return "Prediction{" +
+                "label=" + label +
+                ", probabilities=" + Arrays.toString(probabilities) +
+                '}';
+    }
+}
@@ -0,0 +1,210 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Combines single image requests into micro-batches. A dispatcher thread waits for the first request, then
+ * collects more until the batch is full or the maximum wait has passed, runs the whole batch through one
+ * forward pass and completes the future of every caller with its own prediction. The queue is bounded, a request
+ * that finds it full fails with a {@link RejectedExecutionException}, and requests cancelled by their caller are
+ * left out of the batch.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class PredictionBatcher implements AutoCloseable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(PredictionBatcher.class);
+    // upper bounds of the batch size histogram buckets, the last bucket takes everything bigger
+    private static final int[] BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+
+    private final Function<float[][], List<Prediction>> predictor;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue;
+    private final Thread dispatcher;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong images = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLongArray batchSizes = new AtomicLongArray(BUCKETS.length + 1);
+    private volatile boolean running = true;
+
+    private static final class Request {
+        private final float[] pixels;
+        private final CompletableFuture<Prediction> future = new CompletableFuture<>();
+
+        private Request(float[] pixels) {
+            this.pixels = pixels;
+        }
+    }
+
+    /**
+     * @param predictor     runs one forward pass over a batch of images
+     * @param maxBatchSize  most images in one batch
+     * @param maxWaitMicros longest time the first request of a batch waits for more requests
+     * @param queueCapacity most requests waiting for a batch
+     */
+    public PredictionBatcher(Function<float[][], List<Prediction>> predictor, int maxBatchSize, long maxWaitMicros,
+                             int queueCapacity) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.predictor = predictor;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.dispatcher = new Thread(this::dispatch, "prediction-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * @param pixels 784 pixels between 0 and 255, not modified
+     * @return future completed once the batch holding the image has been predicted, or failed with a
+     * {@link RejectedExecutionException} when the queue is full
+     */
+    public CompletableFuture<Prediction> submit(final float[] pixels) {
+        final Request request = new Request(pixels);
+        if (!running) {
+            request.future.completeExceptionally(new IllegalStateException("Batcher is closed"));
+            return request.future;
+        }
+        if (!queue.offer(request)) {
+            request.future.completeExceptionally(new RejectedExecutionException(
+                    "Queue is full with " + queue.size() + " requests"));
+            return request.future;
+        }
+        if (!running && queue.remove(request)) {
+            request.future.completeExceptionally(new IllegalStateException("Batcher is closed"));
+        }
+        return request.future;
+    }
+
+    private void dispatch() {
+        final List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                final long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    final long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    final Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                failAll(batch, new IllegalStateException("Batcher is closed"));
+                break;
+            }
+            run(batch);
+            batch.clear();
+        }
+        final List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        failAll(pending, new IllegalStateException("Batcher is closed"));
+    }
+
+    private void run(final List<Request> batch) {
+        // the caller gave up waiting for these
+        batch.removeIf(request -> request.future.isCancelled());
+        if (batch.isEmpty()) {
+            return;
+        }
+        final float[][] pixels = new float[batch.size()][];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = batch.get(i).pixels;
+        }
+        record(batch.size());
+        try {
+            final List<Prediction> predictions = predictor.apply(pixels);
+            for (int i = 0; i < pixels.length; i++) {
+                batch.get(i).future.complete(predictions.get(i));
+            }
+        } catch (Throwable e) {
+            // an Error must not end the dispatcher either, the callers would wait forever
+            LOGGER.error("Prediction of a batch of " + batch.size() + " images failed: " + e);
+            failAll(batch, e);
+        }
+    }
+
+    private static void failAll(final List<Request> requests, final Throwable cause) {
+        for (Request request : requests) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    private void record(final int batchSize) {
+        batches.incrementAndGet();
+        images.addAndGet(batchSize);
+        largestBatch.accumulateAndGet(batchSize, Math::max);
+        int bucket = 0;
+        while (bucket < BUCKETS.length && batchSize > BUCKETS[bucket]) {
+            bucket++;
+        }
+        batchSizes.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return amount of requests waiting for a batch
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long images() {
+        return images.get();
+    }
+
+    /**
+     * @return metrics in the text format of the /metrics endpoint
+     */
+    public String metrics() {
+        final long batchCount = batches.get();
+        final StringBuilder metrics = new StringBuilder()
+                .append("queue_depth ").append(queueDepth()).append('\n')
+                .append("batches_total ").append(batchCount).append('\n')
+                .append("images_total ").append(images.get()).append('\n')
+                .append("batch_size_mean ").append(batchCount == 0 ? 0 : (double) images.get() / batchCount).append('\n')
+                .append("batch_size_max ").append(largestBatch.get()).append('\n');
+        long cumulative = 0;
+        for (int bucket = 0; bucket <= BUCKETS.length; bucket++) {
+            cumulative += batchSizes.get(bucket);
+            final String bound = bucket < BUCKETS.length ? String.valueOf(BUCKETS[bucket]) : "+Inf";
+            metrics.append("batch_size_bucket{le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        return metrics.toString();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+    }
+}
@@ -0,0 +1,406 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ramo.klevis.LenetInference.CONV1_CHANNELS;
+import static ramo.klevis.LenetInference.CONV1_SIDE;
+import static ramo.klevis.LenetInference.CONV2_CHANNELS;
+import static ramo.klevis.LenetInference.CONV2_SIDE;
+import static ramo.klevis.LenetInference.DENSE;
+import static ramo.klevis.LenetInference.KERNEL;
+import static ramo.klevis.LenetInference.POOL1_SIDE;
+import static ramo.klevis.LenetInference.SIDE;
+import static ramo.klevis.LenetInference.TAPS;
+
+/**
+ * The LeNet network of {@link LenetInference} with weights and activations quantized to 8 bits. Weights are
+ * scaled symmetrically per output channel to [-127, 127], biases to the 32 bit scale of their sums, and the
+ * pixels are taken as they are, 0 to 255. The pooled planes and hidden layers are scaled to [-127, 127] with
+ * one scale per layer, calibrated by {@link #quantize} on the largest values of the float network. Sums are
+ * exact in int; only rescaling a layer to 8 bits rounds, and the output layer goes back to float for the
+ * softmax.
+ * <p>
+ * The weights take a quarter of the memory and file size of the float network. The activations are held in
+ * int arrays, so the convolutions run the same loops as the float network on ints, because C2 of JDK 17 does
+ * not compile loops that widen bytes to int to vector instructions. It has no 8 bit dot products either, and
+ * vector int multiplies are slower than float ones, so on JDK 17 this network is smaller than the float one
+ * but not faster.
+ * <p>
+ * Files hold the layers in order, each the scales of its output channels, its int biases and its byte weights,
+ * and then the scales of the four activation layers, all big endian.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public final class QuantizedLenet implements CnnInference {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(QuantizedLenet.class);
+    private static final String FORMAT = "LENET-INT8";
+    private static final int VERSION = 1;
+    private static final int MAX = 127;
+    private static final int PIXEL_MAX = 255;
+    private static final int LAYERS = 2 + DENSE.length - 1;
+    private static final int[] INPUTS = {TAPS, CONV1_CHANNELS * TAPS, DENSE[0], DENSE[1], DENSE[2]};
+    private static final int[] OUTPUTS = {CONV1_CHANNELS, CONV2_CHANNELS, DENSE[1], DENSE[2], DENSE[3]};
+
+    /**
+     * Weight scale of every output channel of every layer.
+     */
+    private final float[][] weightScales;
+    private final int[][] bias;
+    /**
+     * Weights of a layer, for the convolutions as [out][in][row][column], for dense layers one row of outputs
+     * per input like in {@link LenetInference}.
+     */
+    private final byte[][] weights;
+    /**
+     * Scale of the input, the pooled planes of both convolutions and both hidden layers.
+     */
+    private final float[] activationScales;
+    /**
+     * Factor from the sums of a layer to its 8 bit outputs, per output channel; logits for the output layer.
+     */
+    private final float[][] rescale;
+    private final ThreadLocal<Activations> activations = ThreadLocal.withInitial(Activations::new);
+
+    private QuantizedLenet(float[][] weightScales, int[][] bias, byte[][] weights, float[] activationScales) {
+        this.weightScales = weightScales;
+        this.bias = bias;
+        this.weights = weights;
+        this.activationScales = activationScales;
+        this.rescale = new float[LAYERS][];
+        for (int layer = 0; layer < LAYERS; layer++) {
+            rescale[layer] = new float[OUTPUTS[layer]];
+            final float next = layer + 1 < LAYERS ? activationScales[layer + 1] : 1f;
+            for (int o = 0; o < OUTPUTS[layer]; o++) {
+                rescale[layer][o] = weightScales[layer][o] * activationScales[layer] / next;
+            }
+        }
+    }
+
+    /**
+     * Quantizes the float network with activation scales calibrated on the given images.
+     *
+     * @param input  pixels scaled to [0, 1], 784 per image one image after the other
+     * @param images amount of calibration images
+     */
+    public static QuantizedLenet quantize(LenetInference model, float[] input, int images) {
+        final float[] ranges = new float[LAYERS - 1];
+        for (int i = 0; i < images; i++) {
+            model.calibrate(input, i * IdxReader.VECTOR_DIMENSION, ranges);
+        }
+        final float[] activationScales = new float[LAYERS];
+        activationScales[0] = 1f / PIXEL_MAX;
+        for (int layer = 1; layer < LAYERS; layer++) {
+            activationScales[layer] = ranges[layer - 1] > 0 ? ranges[layer - 1] / MAX : 1f;
+        }
+        final float[][] layerWeights = new float[LAYERS][];
+        final float[][] layerBias = {model.conv1Bias, model.conv2Bias, model.denseBias[0], model.denseBias[1],
+                model.denseBias[2]};
+        layerWeights[0] = model.conv1Weights;
+        layerWeights[1] = model.conv2Weights;
+        for (int layer = 2; layer < LAYERS; layer++) {
+            final float[][] rows = model.denseWeights[layer - 2];
+            layerWeights[layer] = new float[INPUTS[layer] * OUTPUTS[layer]];
+            for (int i = 0; i < rows.length; i++) {
+                System.arraycopy(rows[i], 0, layerWeights[layer], i * OUTPUTS[layer], OUTPUTS[layer]);
+            }
+        }
+        final float[][] weightScales = new float[LAYERS][];
+        final int[][] bias = new int[LAYERS][];
+        final byte[][] weights = new byte[LAYERS][];
+        for (int layer = 0; layer < LAYERS; layer++) {
+            final float[] values = layerWeights[layer];
+            final boolean dense = layer >= 2;
+            final int outputs = OUTPUTS[layer];
+            final int inputs = INPUTS[layer];
+            weightScales[layer] = new float[outputs];
+            for (int o = 0; o < outputs; o++) {
+                float range = 0;
+                for (int i = 0; i < inputs; i++) {
+                    range = Math.max(range, Math.abs(values[index(dense, o, i, inputs, outputs)]));
+                }
+                weightScales[layer][o] = range > 0 ? range / MAX : 1f;
+            }
+            weights[layer] = new byte[values.length];
+            for (int o = 0; o < outputs; o++) {
+                for (int i = 0; i < inputs; i++) {
+                    final int index = index(dense, o, i, inputs, outputs);
+                    weights[layer][index] = (byte) Math.round(values[index] / weightScales[layer][o]);
+                }
+            }
+            bias[layer] = new int[outputs];
+            for (int o = 0; o < outputs; o++) {
+                bias[layer][o] = Math.round(layerBias[layer][o] / (weightScales[layer][o] * activationScales[layer]));
+            }
+        }
+        LOGGER.info("Quantized to 8 bits with activation ranges " + Arrays.toString(ranges) + " of " + images
+                + " images");
+        return new QuantizedLenet(weightScales, bias, weights, activationScales);
+    }
+
+    private static int index(boolean dense, int output, int input, int inputs, int outputs) {
+        return dense ? input * outputs + output : output * inputs + input;
+    }
+
+    public static QuantizedLenet load(File model) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(model)))) {
+            final String format = in.readUTF();
+            final int version = in.readInt();
+            if (!FORMAT.equals(format) || version != VERSION) {
+                throw new IOException(model + " is no " + FORMAT + " model of version " + VERSION);
+            }
+            final float[][] weightScales = new float[LAYERS][];
+            final int[][] bias = new int[LAYERS][];
+            final byte[][] weights = new byte[LAYERS][];
+            for (int layer = 0; layer < LAYERS; layer++) {
+                weightScales[layer] = new float[OUTPUTS[layer]];
+                for (int o = 0; o < OUTPUTS[layer]; o++) {
+                    weightScales[layer][o] = in.readFloat();
+                }
+                bias[layer] = new int[OUTPUTS[layer]];
+                for (int o = 0; o < OUTPUTS[layer]; o++) {
+                    bias[layer][o] = in.readInt();
+                }
+                weights[layer] = new byte[INPUTS[layer] * OUTPUTS[layer]];
+                in.readFully(weights[layer]);
+            }
+            final float[] activationScales = new float[LAYERS];
+            for (int layer = 0; layer < LAYERS; layer++) {
+                activationScales[layer] = in.readFloat();
+            }
+            return new QuantizedLenet(weightScales, bias, weights, activationScales);
+        }
+    }
+
+    public void write(File model) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(model)))) {
+            out.writeUTF(FORMAT);
+            out.writeInt(VERSION);
+            for (int layer = 0; layer < LAYERS; layer++) {
+                for (float scale : weightScales[layer]) {
+                    out.writeFloat(scale);
+                }
+                for (int value : bias[layer]) {
+                    out.writeInt(value);
+                }
+                out.write(weights[layer]);
+            }
+            for (float scale : activationScales) {
+                out.writeFloat(scale);
+            }
+        }
+    }
+
+    /**
+     * @return bytes of the weights, biases and scales
+     */
+    public long parameterBytes() {
+        long bytes = activationScales.length * Float.BYTES;
+        for (int layer = 0; layer < LAYERS; layer++) {
+            bytes += weights[layer].length + OUTPUTS[layer] * (Float.BYTES + Integer.BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return bytes of the buffers every predicting thread keeps for its forward passes
+     */
+    public static long activationBytes() {
+        return new Activations().values() * Integer.BYTES;
+    }
+
+    @Override
+    public Prediction predict(final double[] pixels) {
+        final Activations scratch = activations.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            scratch.input[i] = (int) Math.round(pixels[i]);
+        }
+        return forward(scratch);
+    }
+
+    @Override
+    public Prediction predict(final float[] pixels) {
+        final Activations scratch = activations.get();
+        for (int i = 0; i < IdxReader.VECTOR_DIMENSION; i++) {
+            scratch.input[i] = Math.round(pixels[i]);
+        }
+        return forward(scratch);
+    }
+
+    @Override
+    public List<Prediction> predictScaled(final float[] input, final int batchSize) {
+        final Prediction[] predictions = new Prediction[batchSize];
+        LenetInference.forEachTask(batchSize, (from, to) -> {
+            final Activations scratch = activations.get();
+            for (int i = from; i < to; i++) {
+                final int offset = i * IdxReader.VECTOR_DIMENSION;
+                for (int j = 0; j < IdxReader.VECTOR_DIMENSION; j++) {
+                    scratch.input[j] = Math.round(input[offset + j] * PIXEL_MAX);
+                }
+                predictions[i] = forward(scratch);
+            }
+        });
+        return new ArrayList<>(Arrays.asList(predictions));
+    }
+
+    private Prediction forward(final Activations a) {
+        convolve(a.input, SIDE, weights[0], bias[0], CONV1_SIDE, a.conv1Columns, a.conv1);
+        pool(a.conv1, SIDE, CONV1_SIDE, rescale[0], a.pool1);
+        convolve(a.pool1, POOL1_SIDE, weights[1], bias[1], CONV2_SIDE, a.conv2Columns, a.conv2);
+        pool(a.conv2, POOL1_SIDE, CONV2_SIDE, rescale[1], a.pool2);
+        dense(a.pool2, 2, a.sums[0]);
+        relu(a.sums[0], rescale[2], a.hidden[0]);
+        dense(a.hidden[0], 3, a.sums[1]);
+        relu(a.sums[1], rescale[3], a.hidden[1]);
+        dense(a.hidden[1], 4, a.sums[2]);
+        final float[] probabilities = new float[OUTPUTS[LAYERS - 1]];
+        for (int o = 0; o < probabilities.length; o++) {
+            probabilities[o] = a.sums[2][o] * rescale[LAYERS - 1][o];
+        }
+        softmax(probabilities);
+        return Prediction.of(probabilities);
+    }
+
+    /**
+     * Valid convolution like in {@link LenetInference}, in int.
+     */
+    private static void convolve(final int[] input, final int side, final byte[] weights, final int[] bias,
+                                 final int outputSide, final int[][] columns, final int[][] output) {
+        final int run = (outputSide - 1) * side + outputSide;
+        final int channels = columns.length / TAPS;
+        for (int c = 0; c < channels; c++) {
+            for (int i = 0; i < KERNEL; i++) {
+                for (int j = 0; j < KERNEL; j++) {
+                    System.arraycopy(input, c * side * side + i * side + j, columns[c * TAPS + i * KERNEL + j],
+                            0, run);
+                }
+            }
+        }
+        for (int o = 0; o < bias.length; o++) {
+            final int[] out = output[o];
+            Arrays.fill(out, 0, run, bias[o]);
+            for (int r = 0; r < columns.length; r += KERNEL) {
+                final int kernel = o * columns.length + r;
+                final int k0 = weights[kernel];
+                final int k1 = weights[kernel + 1];
+                final int k2 = weights[kernel + 2];
+                final int k3 = weights[kernel + 3];
+                final int k4 = weights[kernel + 4];
+                final int[] x0 = columns[r];
+                final int[] x1 = columns[r + 1];
+                final int[] x2 = columns[r + 2];
+                final int[] x3 = columns[r + 3];
+                final int[] x4 = columns[r + 4];
+                for (int p = 0; p < run; p++) {
+                    out[p] += x0[p] * k0 + x1[p] * k1 + x2[p] * k2 + x3[p] * k3 + x4[p] * k4;
+                }
+            }
+        }
+    }
+
+    /**
+     * 2x2 max pool of the sums, then scaled to 8 bits; the scales are positive, so the maximum is the same
+     * before and after.
+     */
+    private static void pool(final int[][] input, final int stride, final int side, final float[] rescale,
+                             final int[] output) {
+        final int pooled = side / 2;
+        for (int c = 0; c < input.length; c++) {
+            final int[] plane = input[c];
+            final float scale = rescale[c];
+            for (int y = 0; y < pooled; y++) {
+                final int row = 2 * y * stride;
+                final int out = (c * pooled + y) * pooled;
+                for (int x = 0; x < pooled; x++) {
+                    final int in = row + 2 * x;
+                    final int max = Math.max(Math.max(plane[in], plane[in + 1]),
+                            Math.max(plane[in + stride], plane[in + stride + 1]));
+                    output[out + x] = clamp(Math.round(max * scale), -MAX);
+                }
+            }
+        }
+    }
+
+    private void dense(final int[] input, final int layer, final int[] output) {
+        final byte[] layerWeights = weights[layer];
+        final int outputs = output.length;
+        System.arraycopy(bias[layer], 0, output, 0, outputs);
+        for (int i = 0; i < input.length; i++) {
+            final int value = input[i];
+            if (value == 0) {
+                continue;
+            }
+            final int row = i * outputs;
+            for (int o = 0; o < outputs; o++) {
+                output[o] += value * layerWeights[row + o];
+            }
+        }
+    }
+
+    private static void relu(final int[] sums, final float[] rescale, final int[] output) {
+        for (int o = 0; o < sums.length; o++) {
+            output[o] = clamp(Math.round(sums[o] * rescale[o]), 0);
+        }
+    }
+
+    private static int clamp(final int value, final int min) {
+        return Math.max(min, Math.min(MAX, value));
+    }
+
+    private static void softmax(final float[] values) {
+        float max = values[0];
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+        float sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) Math.exp(values[i] - max);
+            sum += values[i];
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] /= sum;
+        }
+    }
+
+    /**
+     * Buffers of one forward pass, reused by a thread for all its images.
+     */
+    private static final class Activations {
+
+        private final int[] input = new int[IdxReader.VECTOR_DIMENSION];
+        private final int[][] conv1Columns = new int[TAPS][(CONV1_SIDE - 1) * SIDE + CONV1_SIDE];
+        private final int[][] conv1 = new int[CONV1_CHANNELS][CONV1_SIDE * SIDE];
+        private final int[] pool1 = new int[CONV1_CHANNELS * POOL1_SIDE * POOL1_SIDE];
+        private final int[][] conv2Columns =
+                new int[CONV1_CHANNELS * TAPS][(CONV2_SIDE - 1) * POOL1_SIDE + CONV2_SIDE];
+        private final int[][] conv2 = new int[CONV2_CHANNELS][CONV2_SIDE * POOL1_SIDE];
+        private final int[] pool2 = new int[DENSE[0]];
+        private final int[][] sums = {new int[DENSE[1]], new int[DENSE[2]], new int[DENSE[3]]};
+        private final int[][] hidden = {new int[DENSE[1]], new int[DENSE[2]]};
+
+        private long values() {
+            long values = input.length + pool1.length + pool2.length;
+            for (int[][] buffers : new int[][][]{conv1Columns, conv1, conv2Columns, conv2, sums, hidden}) {
+                for (int[] buffer : buffers) {
+                    values += buffer.length;
+                }
+            }
+            return values;
+        }
+    }
+}
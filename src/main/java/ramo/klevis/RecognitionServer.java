@@ -0,0 +1,204 @@
+package ramo.klevis;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Local HTTP service for digit recognition in front of the convolutional network. Single image requests are
+ * combined into micro-batches by a {@link PredictionBatcher}.
+ * <p>
+ * POST /predict takes 784 pixel values between 0 and 255 separated by commas or whitespace, row by row, and
+ * answers with the digit and its probabilities as JSON. It answers with 413 when the body is longer than
+ * SERVER_MAX_BODY_BYTES, and with 503 when SERVER_QUEUE_CAPACITY requests are already queued or the prediction
+ * takes longer than SERVER_TIMEOUT_MILLIS. GET /metrics reports queue depth and batch sizes.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class RecognitionServer {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(RecognitionServer.class);
+    private static final Configuration config = Configuration.getInstance();
+
+    private static final int PORT = Integer.parseInt(config.props.getProperty("SERVER_PORT", "8080").trim());
+    private static final int THREADS = Integer.parseInt(config.props.getProperty("SERVER_THREADS", "32").trim());
+    private static final int MAX_BATCH_SIZE = Integer.parseInt(config.props.getProperty("SERVER_MAX_BATCH_SIZE", "64").trim());
+    private static final long MAX_WAIT_MICROS = Long.parseLong(config.props.getProperty("SERVER_MAX_WAIT_MICROS", "2000").trim());
+    private static final long TIMEOUT_MILLIS = Long.parseLong(config.props.getProperty("SERVER_TIMEOUT_MILLIS", "5000").trim());
+    private static final int QUEUE_CAPACITY = Integer.parseInt(config.props.getProperty("SERVER_QUEUE_CAPACITY", "1024").trim());
+    // 784 values of up to three digits with a separator take less than 4 KB
+    private static final int MAX_BODY_BYTES = Integer.parseInt(config.props.getProperty("SERVER_MAX_BODY_BYTES", "8192").trim());
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PredictionBatcher batcher;
+    private final long timeoutMillis;
+
+    public RecognitionServer(PredictionBatcher batcher, int port, int threads) throws IOException {
+        this(batcher, port, threads, TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis longest time a request waits for its prediction
+     */
+    public RecognitionServer(PredictionBatcher batcher, int port, int threads, long timeoutMillis) throws IOException {
+        this.batcher = batcher;
+        this.timeoutMillis = timeoutMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/predict", this::predict);
+        this.server.createContext("/metrics", this::metrics);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ConvolutionalNeuralNetwork convolutionalNeuralNetwork = ConvolutionalNeuralNetwork.getInstance();
+        convolutionalNeuralNetwork.init();
+        final PredictionBatcher batcher = new PredictionBatcher(convolutionalNeuralNetwork::predictBatch,
+                MAX_BATCH_SIZE, MAX_WAIT_MICROS, QUEUE_CAPACITY);
+        new RecognitionServer(batcher, PORT, THREADS).start();
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Recognition server listening on " + server.getAddress() + " with batches of up to "
+                + MAX_BATCH_SIZE + " images and " + MAX_WAIT_MICROS + " microseconds of wait");
+    }
+
+    /**
+     * @return port the server listens on, useful when it was created with port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        batcher.close();
+    }
+
+    private void predict(final HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "Use POST with 784 pixel values\n");
+            return;
+        }
+        final String body = readBody(exchange.getRequestBody(), MAX_BODY_BYTES);
+        if (body == null) {
+            respond(exchange, 413, "Body is longer than " + MAX_BODY_BYTES + " bytes\n");
+            return;
+        }
+        final float[] pixels;
+        try {
+            pixels = parsePixels(body);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, e.getMessage() + "\n");
+            return;
+        }
+        final CompletableFuture<Prediction> prediction = batcher.submit(pixels);
+        try {
+            respond(exchange, 200, toJson(prediction.get(timeoutMillis, TimeUnit.MILLISECONDS)));
+        } catch (InterruptedException e) {
+            prediction.cancel(false);
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "Interrupted\n");
+        } catch (TimeoutException e) {
+            // the dispatcher leaves cancelled requests out of its batches
+            prediction.cancel(false);
+            LOGGER.warn("No prediction after " + timeoutMillis + " ms, " + batcher.queueDepth() + " requests queued");
+            respond(exchange, 503, "Prediction timed out\n");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                respond(exchange, 503, "Too many requests queued\n");
+                return;
+            }
+            LOGGER.error("Prediction failed: " + e.getCause());
+            respond(exchange, 500, "Prediction failed\n");
+        }
+    }
+
+    private void metrics(final HttpExchange exchange) throws IOException {
+        respond(exchange, 200, batcher.metrics());
+    }
+
+    /**
+     * @return the body, or null when it is longer than maxBytes
+     */
+    private static String readBody(final InputStream body, final int maxBytes) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) > 0) {
+            content.write(buffer, 0, read);
+            if (content.size() > maxBytes) {
+                return null;
+            }
+        }
+        return new String(content.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param body 784 pixel values separated by commas or whitespace
+     * @return the pixels, between 0 and 255
+     * @throws IllegalArgumentException when there are not 784 values or one of them is not a number in [0, 255]
+     */
+    public static float[] parsePixels(final String body) {
+        final String[] values = body.trim().split("[,\\s]+");
+        if (values.length != IdxReader.VECTOR_DIMENSION) {
+            throw new IllegalArgumentException("Expected " + IdxReader.VECTOR_DIMENSION + " pixel values but got "
+                    + values.length);
+        }
+        final float[] pixels = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                pixels[i] = Float.parseFloat(values[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Pixel " + i + " is not a number: " + values[i]);
+            }
+            // also rejects NaN, which fails every comparison
+            if (!(pixels[i] >= 0 && pixels[i] <= 255)) {
+                throw new IllegalArgumentException("Pixel " + i + " is outside of [0, 255]: " + values[i]);
+            }
+        }
+        return pixels;
+    }
+
+    private static String toJson(final Prediction prediction) {
+        final StringBuilder json = new StringBuilder("{\"label\":").append(prediction.getLabel())
+                .append(",\"probabilities\":[");
+        final float[] probabilities = prediction.getProbabilities();
+        for (int i = 0; i < probabilities.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(probabilities[i]);
+        }
+        return json.append("]}\n").toString();
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ramo.klevis;
+
+/**
+ * Backend computing one output row of a convolution at a time. The scalar loops of {@link FlatConvolution} are
+ * the default; {@code VectorConvolution}, built from src/main/java-vector with the vector profile, computes a
+ * group of neighbouring output pixels per vector register.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+interface RowConvolution {
+
+    /**
+     * Adds to output[outputOffset + x], for x in [0, length), the products input[inputOffset + i * inputStride +
+     * x + j] * kernel[i * kernelWidth + j] in the order of kernel row i and then column j, so a zeroed output
+     * ends up with exactly the doubles of {@link Convolution#convolution2D}.
+     */
+    void convolveRowAdd(double[] input, int inputOffset, int inputStride,
+                        double[] kernel, int kernelWidth, int kernelHeight,
+                        double[] output, int outputOffset, int length);
+}
@@ -0,0 +1,44 @@
+package ramo.klevis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Converts the trained models to {@link ModelSnapshot} files, which the networks map at startup instead of
+ * parsing the original artifacts. The convolutional network is read from TRAINED_MODEL_FILE and written to
+ * CNN_SNAPSHOT_FILE, the perceptron is read from TRAINED_MODEL with Spark and written to NN_SNAPSHOT_FILE.
+ * Run it again after training, a snapshot is no longer read once it is deleted.
+ * <p>
+ * Usage: SnapshotConverter [cnn | perceptron]
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public class SnapshotConverter {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(SnapshotConverter.class);
+    private static final Configuration config = Configuration.getInstance();
+    private static final String TRAINED_MODEL_FILE = config.props.getProperty("TRAINED_MODEL_FILE");
+    private static final String CNN_SNAPSHOT_FILE = config.props.getProperty("CNN_SNAPSHOT_FILE",
+            "resources/cnnTrainedModels/bestModel.snapshot").trim();
+    private static final String NN_SNAPSHOT_FILE = config.props.getProperty("NN_SNAPSHOT_FILE",
+            "resources/nnTrainedModels/ModelWith60000.snapshot").trim();
+
+    public static void main(String[] args) throws Exception {
+        final String model = args.length > 0 ? args[0] : "";
+        if (!"perceptron".equalsIgnoreCase(model)) {
+            final File snapshot = new File(CNN_SNAPSHOT_FILE);
+            ModelSnapshot.write(snapshot, ModelSnapshot.Kind.LENET, LenetInference.layers(),
+                    LenetInference.readParameters(new File(TRAINED_MODEL_FILE)));
+            final long start = System.nanoTime();
+            LenetInference.load(ModelSnapshot.map(snapshot));
+            LOGGER.info("Mapped " + snapshot + " in " + (System.nanoTime() - start) / 1000 + " us");
+        }
+        if (!"cnn".equalsIgnoreCase(model)) {
+            NeuralNetwork.getInstance().writeSnapshot(new File(NN_SNAPSHOT_FILE));
+        }
+    }
+}
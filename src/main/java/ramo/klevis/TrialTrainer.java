@@ -0,0 +1,42 @@
+package ramo.klevis;
+
+/**
+ * Trainer that {@link HyperparameterSearch} runs trials of. A trainer loads its data set once and shares it with
+ * all its trials, which may train at the same time.
+ *
+ * @version 1.0
+ * @since 10/18/2026
+ */
+
+public interface TrialTrainer {
+
+    /**
+     * @return untrained network of the hyperparameters
+     */
+    Trial start(HyperParameters parameters) throws Exception;
+
+    /**
+     * A network being trained, one round at a time.
+     */
+    interface Trial extends AutoCloseable {
+
+        /**
+         * Continues training where the last call stopped.
+         *
+         * @param rounds amount of rounds, epochs or iterations of the optimizer depending on the trainer
+         * @return accuracy on the test set after these rounds
+         */
+        double train(int rounds) throws Exception;
+
+        /**
+         * @return memory of the parameters of the network
+         */
+        long parameterBytes();
+
+        /**
+         * Frees what the trial holds, it is not trained any further.
+         */
+        @Override
+        void close();
+    }
+}
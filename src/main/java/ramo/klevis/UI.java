@@ -1,7 +1,5 @@
 package ramo.klevis;
 
-import com.mortennobel.imagescaling.ResampleFilters;
-import com.mortennobel.imagescaling.ResampleOp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +7,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.awt.image.BufferedImage;
 
 /**
  * The UI class is a JFrame to hold the JPanels for drawing area (input) and prediction area (output).
@@ -26,6 +23,9 @@ public class UI extends JFrame implements UISubject {
     private final JPanel drawAndDigitPredictionPanel;
     private JPanel resultPanel;
     private NNObserver observer;
+    private final DigitPreprocessor preprocessor = new DigitPreprocessor(Boolean.parseBoolean(
+            Configuration.getInstance().props.getProperty("CENTER_DIGITS", "true").trim()));
+    private final float[] pixels = new float[DigitPreprocessor.SIZE * DigitPreprocessor.SIZE];
     private String subjectState;
 
     public String getSubjectState() {
@@ -51,6 +51,11 @@ public class UI extends JFrame implements UISubject {
         return this.observer.update(labeledImage);
     }
 
+    @Override
+    public int notifyObs(float[] pixels) {
+        return this.observer.update(pixels);
+    }
+
     public UI() {
         LOGGER.info("Creating UI");
 
@@ -75,12 +80,7 @@ public class UI extends JFrame implements UISubject {
 
         recognizeCNN.addActionListener(e -> {
             Image drawImage = drawArea.getImage();
-            BufferedImage sbi = toBufferedImage(drawImage);
-            Image scaled = scale(sbi);
-            BufferedImage scaledBuffered = toBufferedImage(scaled);
-            double[] scaledPixels = transformImageToOneDimensionalVector(scaledBuffered);
-            LabeledImage labeledImage = new LabeledImage(0, scaledPixels);
-            int predict = notifyObs(labeledImage);
+            int predict = notifyObs(preprocessor.process(drawImage, pixels));
             JLabel predictNumber = new JLabel("" + predict);
             predictNumber.setForeground(Color.RED);
             predictNumber.setFont(new Font("SansSerif", Font.BOLD, 128));
@@ -111,43 +111,6 @@ public class UI extends JFrame implements UISubject {
         drawAndDigitPredictionPanel.add(resultPanel);
     }
 
-    private static BufferedImage scale(BufferedImage imageToScale) {
-        ResampleOp resizeOp = new ResampleOp(28, 28);
-        resizeOp.setFilter(ResampleFilters.getLanczos3Filter());
-        final BufferedImage filter = resizeOp.filter(imageToScale, null);
-        return filter;
-    }
-
-    private static BufferedImage toBufferedImage(Image img) {
-        // Create a buffered image with transparency
-        BufferedImage binaryImage = new BufferedImage(img.getWidth(null), img.getHeight(null), BufferedImage.TYPE_INT_ARGB);
-
-        // Draw the image on to the buffered image
-        Graphics2D bGr = binaryImage.createGraphics();
-        bGr.drawImage(img, 0, 0, null);
-        bGr.dispose();
-        return binaryImage;
-    }
-
-    private static double[] transformImageToOneDimensionalVector(BufferedImage img) {
-        double[] imageGray = new double[28 * 28];
-        int w = img.getWidth();
-        int h = img.getHeight();
-        int index = 0;
-        for (int i = 0; i < w; i++) {
-            for (int j = 0; j < h; j++) {
-                Color color = new Color(img.getRGB(j, i), true);
-                int red = (color.getRed());
-                int green = (color.getGreen());
-                int blue = (color.getBlue());
-                double v = 255 - (red + green + blue) / 3d;
-                imageGray[index] = v;
-                index++;
-            }
-        }
-        return imageGray;
-    }
-
     private void setMainFrame() {
         this.setTitle("Digit Recognizer");
         this.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
@@ -14,4 +14,6 @@ public interface UISubject {
 
     int notifyObs(LabeledImage labeledImage);
 
+    int notifyObs(float[] pixels);
+
 }
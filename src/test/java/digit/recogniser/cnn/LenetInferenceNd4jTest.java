@@ -0,0 +1,54 @@
+package digit.recogniser.cnn;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import ramo.klevis.LenetInference;
+import ramo.klevis.Prediction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the plain Java forward pass against the trained network restored and run by DeepLearning4j, so the
+ * layout of the parameters is not only checked against assumptions of the same code.
+ */
+public class LenetInferenceNd4jTest {
+
+    private static final int RANDOM_IMAGES = 32;
+
+    @Test
+    public void predictsLikeTheRestoredNetwork() throws IOException {
+        File model = new File(LenetInferenceTest.TRAINED_MODEL_FILE);
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(model);
+        LenetInference inference = LenetInference.load(model);
+
+        float[][] digits = LenetInferenceTest.drawDigits();
+        Random random = new Random(13);
+        int images = digits.length + RANDOM_IMAGES;
+        float[] input = new float[images * 784];
+        for (int i = 0; i < images; i++) {
+            float[] pixels = i < digits.length ? digits[i] : LenetInferenceTest.randomImage(random);
+            for (int j = 0; j < 784; j++) {
+                input[i * 784 + j] = pixels[j] / 255f;
+            }
+        }
+
+        INDArray expected = network.output(Nd4j.create(input, new int[]{images, 784}));
+        List<Prediction> predictions = inference.predictScaled(input, images);
+        for (int i = 0; i < images; i++) {
+            float[] probabilities = predictions.get(i).getProbabilities();
+            for (int digit = 0; digit < 10; digit++) {
+                assertEquals("image " + i + ", digit " + digit, expected.getFloat(i, digit), probabilities[digit],
+                        1e-4f);
+            }
+        }
+    }
+}
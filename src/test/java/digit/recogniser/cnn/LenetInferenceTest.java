@@ -0,0 +1,188 @@
+package digit.recogniser.cnn;
+
+import org.junit.Test;
+
+import ramo.klevis.LenetInference;
+import ramo.klevis.Prediction;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the plain Java forward pass against the layers computed one by one from the flat parameters, and the
+ * trained model on digits drawn with strokes.
+ */
+public class LenetInferenceTest {
+
+    static final String TRAINED_MODEL_FILE = "resources/cnnTrainedModels/bestModel.bin";
+
+    /* forward pass straight from the layout of the parameters, in double */
+    private static double[] reference(float[] parameters, float[] pixels) {
+        int offset = 0;
+        double[][][] planes = new double[1][28][28];
+        for (int y = 0; y < 28; y++) {
+            for (int x = 0; x < 28; x++) {
+                planes[0][y][x] = pixels[y * 28 + x] / 255d;
+            }
+        }
+        for (int[] channels : new int[][]{{1, 20}, {20, 50}}) {
+            int in = channels[0], out = channels[1], side = planes[0].length - 4;
+            double[][][] convolved = new double[out][side][side];
+            int weights = offset + out;
+            for (int o = 0; o < out; o++) {
+                for (int y = 0; y < side; y++) {
+                    for (int x = 0; x < side; x++) {
+                        double sum = parameters[offset + o];
+                        for (int c = 0; c < in; c++) {
+                            for (int i = 0; i < 5; i++) {
+                                for (int j = 0; j < 5; j++) {
+                                    sum += planes[c][y + i][x + j]
+                                            * parameters[weights + ((o * in + c) * 5 + i) * 5 + j];
+                                }
+                            }
+                        }
+                        convolved[o][y][x] = sum;
+                    }
+                }
+            }
+            offset = weights + out * in * 25;
+            planes = new double[out][side / 2][side / 2];
+            for (int o = 0; o < out; o++) {
+                for (int y = 0; y < side / 2; y++) {
+                    for (int x = 0; x < side / 2; x++) {
+                        planes[o][y][x] = Math.max(Math.max(convolved[o][2 * y][2 * x], convolved[o][2 * y][2 * x + 1]),
+                                Math.max(convolved[o][2 * y + 1][2 * x], convolved[o][2 * y + 1][2 * x + 1]));
+                    }
+                }
+            }
+        }
+        double[] activations = new double[800];
+        for (int o = 0; o < 50; o++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 4; x++) {
+                    activations[(o * 4 + y) * 4 + x] = planes[o][y][x];
+                }
+            }
+        }
+        for (int outputs : new int[]{128, 64, 10}) {
+            int inputs = activations.length;
+            double[] next = new double[outputs];
+            for (int o = 0; o < outputs; o++) {
+                double sum = parameters[offset + inputs * outputs + o];
+                for (int i = 0; i < inputs; i++) {
+                    sum += activations[i] * parameters[offset + o * inputs + i];
+                }
+                next[o] = outputs == 10 ? sum : Math.max(sum, 0);
+            }
+            offset += (inputs + 1) * outputs;
+            activations = next;
+        }
+        double max = Double.NEGATIVE_INFINITY, sum = 0;
+        for (double activation : activations) {
+            max = Math.max(max, activation);
+        }
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] = Math.exp(activations[i] - max);
+            sum += activations[i];
+        }
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] /= sum;
+        }
+        return activations;
+    }
+
+    static float[] randomImage(Random random) {
+        float[] pixels = new float[784];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(4) == 0 ? random.nextInt(256) : 0;
+        }
+        return pixels;
+    }
+
+    @Test
+    public void forwardPassMatchesTheLayersComputedOneByOne() {
+        Random random = new Random(7);
+        float[] parameters = new float[LenetInference.parameterCount()];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = (float) (random.nextGaussian() * 0.1);
+        }
+        LenetInference inference = new LenetInference(parameters);
+        for (int image = 0; image < 5; image++) {
+            float[] pixels = randomImage(random);
+            double[] expected = reference(parameters, pixels);
+            float[] probabilities = inference.predict(pixels).getProbabilities();
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], probabilities[i], 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void batchesPredictLikeSingleImages() throws IOException {
+        LenetInference inference = LenetInference.load(new File(TRAINED_MODEL_FILE));
+        Random random = new Random(11);
+        int batchSize = 40;
+        float[] input = new float[batchSize * 784];
+        float[][] images = new float[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            images[i] = randomImage(random);
+            for (int j = 0; j < 784; j++) {
+                input[i * 784 + j] = images[i][j] / 255f;
+            }
+        }
+        List<Prediction> predictions = inference.predictScaled(input, batchSize);
+        assertEquals(batchSize, predictions.size());
+        for (int i = 0; i < batchSize; i++) {
+            assertArrayEquals(inference.predict(images[i]).getProbabilities(),
+                    predictions.get(i).getProbabilities(), 0f);
+        }
+    }
+
+    /* digits 1, 7, 4 and 0 drawn with strokes, ink 255 on 0 */
+    static final int[] DRAWN_DIGITS = {1, 7, 4, 0};
+
+    static float[][] drawDigits() {
+        int[][][] strokes = {
+                {{14, 4, 14, 24}},
+                {{7, 5, 21, 5}, {21, 5, 11, 24}},
+                {{17, 4, 6, 17}, {6, 17, 22, 17}, {17, 4, 17, 24}},
+        };
+        float[][] images = new float[DRAWN_DIGITS.length][784];
+        for (int d = 0; d < DRAWN_DIGITS.length; d++) {
+            BufferedImage image = new BufferedImage(28, 28, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(Color.WHITE);
+            graphics.setStroke(new BasicStroke(2.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            if (d < strokes.length) {
+                for (int[] line : strokes[d]) {
+                    graphics.drawLine(line[0], line[1], line[2], line[3]);
+                }
+            } else {
+                graphics.drawOval(8, 4, 12, 20);
+            }
+            graphics.dispose();
+            image.getRaster().getPixels(0, 0, 28, 28, images[d]);
+        }
+        return images;
+    }
+
+    @Test
+    public void trainedModelRecognizesDrawnDigits() throws IOException {
+        LenetInference inference = LenetInference.load(new File(TRAINED_MODEL_FILE));
+        float[][] images = drawDigits();
+        for (int d = 0; d < images.length; d++) {
+            assertEquals(DRAWN_DIGITS[d], inference.predict(images[d]).getLabel());
+        }
+    }
+}
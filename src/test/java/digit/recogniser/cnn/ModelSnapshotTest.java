@@ -0,0 +1,111 @@
+package digit.recogniser.cnn;
+
+import org.junit.Test;
+
+import ramo.klevis.LenetInference;
+import ramo.klevis.ModelSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a mapped snapshot holds the parameters it was written with and predicts like the original model.
+ */
+public class ModelSnapshotTest {
+
+    @Test
+    public void mappedSnapshotPredictsLikeTheTrainedModel() throws IOException {
+        File model = new File(LenetInferenceTest.TRAINED_MODEL_FILE);
+        File file = File.createTempFile("lenet", ".snapshot");
+        try {
+            ModelSnapshot.write(file, ModelSnapshot.Kind.LENET, LenetInference.layers(),
+                    LenetInference.readParameters(model));
+            LenetInference expected = LenetInference.load(model);
+            LenetInference actual = LenetInference.load(ModelSnapshot.map(file));
+            Random random = new Random(3);
+            for (int i = 0; i < 10; i++) {
+                float[] pixels = LenetInferenceTest.randomImage(random);
+                assertArrayEquals(expected.predict(pixels).getProbabilities(),
+                        actual.predict(pixels).getProbabilities(), 0f);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void doublesSurviveWritingAndMapping() throws IOException {
+        int[] layers = {784, 128, 64, 10};
+        double[] parameters = new double[1000];
+        Random random = new Random(4);
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = random.nextGaussian();
+        }
+        File file = File.createTempFile("perceptron", ".snapshot");
+        try {
+            ModelSnapshot.write(file, ModelSnapshot.Kind.PERCEPTRON, layers, parameters);
+            ModelSnapshot snapshot = ModelSnapshot.map(file);
+            assertEquals(ModelSnapshot.Kind.PERCEPTRON, snapshot.getKind());
+            assertArrayEquals(layers, snapshot.getLayers());
+            double[] mapped = new double[snapshot.getParameters()];
+            snapshot.doubles().get(mapped);
+            assertArrayEquals(parameters, mapped, 0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesOfOtherFormats() throws IOException {
+        ModelSnapshot.map(new File(LenetInferenceTest.TRAINED_MODEL_FILE));
+    }
+
+    @Test
+    public void rejectsLayerCountsOutsideOfTheHeader() throws IOException {
+        File file = File.createTempFile("perceptron", ".snapshot");
+        try {
+            for (int layers : new int[]{-1, 9, Integer.MAX_VALUE}) {
+                ModelSnapshot.write(file, ModelSnapshot.Kind.PERCEPTRON, new int[]{784, 10}, new double[7850]);
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.seek(20);
+                    raf.writeInt(Integer.reverseBytes(layers));
+                }
+                try {
+                    ModelSnapshot.map(file);
+                    throw new AssertionError("Expected a broken header for " + layers + " layers");
+                } catch (IOException expected) {
+                    // rejected
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void snapshotIsOutdatedOnceTheModelChanges() throws IOException {
+        File model = File.createTempFile("lenet", ".zip");
+        File file = File.createTempFile("lenet", ".snapshot");
+        try {
+            assertTrue(model.setLastModified(1000000000000L));
+            assertTrue(file.setLastModified(1000000001000L));
+            assertTrue(ModelSnapshot.isUpToDate(file, model));
+
+            assertTrue(model.setLastModified(1000000002000L));
+            assertFalse(ModelSnapshot.isUpToDate(file, model));
+
+            file.delete();
+            assertFalse(ModelSnapshot.isUpToDate(file, model));
+        } finally {
+            model.delete();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package digit.recogniser.cnn;
+
+import org.junit.Test;
+
+import ramo.klevis.LenetInference;
+import ramo.klevis.Prediction;
+import ramo.klevis.QuantizedLenet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the 8 bit network predicts like the float one, and survives writing and loading.
+ */
+public class QuantizedLenetTest {
+
+    private static QuantizedLenet quantize(LenetInference model) {
+        Random random = new Random(5);
+        float[][] digits = LenetInferenceTest.drawDigits();
+        int images = 20;
+        float[] calibration = new float[images * 784];
+        for (int i = 0; i < images; i++) {
+            float[] pixels = i < digits.length ? digits[i] : LenetInferenceTest.randomImage(random);
+            for (int j = 0; j < 784; j++) {
+                calibration[i * 784 + j] = pixels[j] / 255f;
+            }
+        }
+        return QuantizedLenet.quantize(model, calibration, images);
+    }
+
+    @Test
+    public void predictsDrawnDigitsLikeTheFloatNetwork() throws IOException {
+        LenetInference model = LenetInference.load(new File(LenetInferenceTest.TRAINED_MODEL_FILE));
+        QuantizedLenet quantized = quantize(model);
+        float[][] digits = LenetInferenceTest.drawDigits();
+        for (int d = 0; d < digits.length; d++) {
+            Prediction prediction = quantized.predict(digits[d]);
+            assertEquals(LenetInferenceTest.DRAWN_DIGITS[d], prediction.getLabel());
+            assertArrayEquals(model.predict(digits[d]).getProbabilities(), prediction.getProbabilities(), 0.05f);
+        }
+        assertTrue(quantized.parameterBytes() < LenetInference.parameterCount() * 1.02);
+    }
+
+    @Test
+    public void writtenModelPredictsTheSame() throws IOException {
+        QuantizedLenet quantized = quantize(LenetInference.load(new File(LenetInferenceTest.TRAINED_MODEL_FILE)));
+        File file = File.createTempFile("lenet", ".int8");
+        try {
+            quantized.write(file);
+            QuantizedLenet loaded = QuantizedLenet.load(file);
+            float[] input = new float[40 * 784];
+            Random random = new Random(9);
+            for (int i = 0; i < 40; i++) {
+                float[] pixels = LenetInferenceTest.randomImage(random);
+                for (int j = 0; j < 784; j++) {
+                    input[i * 784 + j] = pixels[j] / 255f;
+                }
+            }
+            List<Prediction> expected = quantized.predictScaled(input, 40);
+            List<Prediction> actual = loaded.predictScaled(input, 40);
+            for (int i = 0; i < 40; i++) {
+                assertArrayEquals(expected.get(i).getProbabilities(), actual.get(i).getProbabilities(), 0f);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesOfOtherFormats() throws IOException {
+        QuantizedLenet.load(new File(LenetInferenceTest.TRAINED_MODEL_FILE));
+    }
+}
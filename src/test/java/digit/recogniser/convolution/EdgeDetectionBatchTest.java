@@ -0,0 +1,89 @@
+package digit.recogniser.convolution;
+
+import org.junit.Test;
+
+import ramo.klevis.EdgeDetection;
+import ramo.klevis.EdgeDetectionBatch;
+import ramo.klevis.Precision;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the batch over a directory of two images and a file that is not an image.
+ */
+public class EdgeDetectionBatchTest {
+
+    private static final double[][] LAPLACE = {{0, 1, 0}, {1, -4, 1}, {0, 1, 0}};
+
+    @Test
+    public void parsesKernelRows() {
+        double[][] kernel = EdgeDetectionBatch.parseKernel("0,1,0; 1, -4, 1;0,1,0");
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(LAPLACE[i][j], kernel[i][j], 0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRaggedKernels() {
+        EdgeDetectionBatch.parseKernel("1,0;1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBatchesWithoutFilters() {
+        new EdgeDetectionBatch(new LinkedHashMap<>(), 1, Precision.FLOAT);
+    }
+
+    @Test
+    public void writesEveryFilterOfEveryImage() throws Exception {
+        File input = Files.createTempDirectory("edges-in").toFile();
+        File output = new File(Files.createTempDirectory("edges-out").toFile(), "nested");
+        BufferedImage first = writeRandomImage(new File(input, "first.png"), 40, 30);
+        writeRandomImage(new File(input, "second.png"), 25, 35);
+        Files.write(new File(input, "notes.txt").toPath(), "not an image".getBytes());
+
+        Map<String, double[][]> filters = new LinkedHashMap<>();
+        filters.put("sobel", new double[][]{{1, 0, -1}, {2, 0, -2}, {1, 0, -1}});
+        filters.put("laplace", LAPLACE);
+        EdgeDetectionBatch.Summary summary = new EdgeDetectionBatch(filters, 2, Precision.FIXED).run(input, output);
+
+        assertEquals(2, summary.getImages());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(0, summary.getFailed());
+        assertEquals(40 * 30 + 25 * 35, summary.getPixels());
+        assertEquals(4, output.list().length);
+        assertTrue(new File(output, "second-laplace.png").isFile());
+
+        BufferedImage expected = EdgeDetection.toEdgeImage(EdgeDetection.applyConvolution(40, 30,
+                EdgeDetection.transformImageToArray(first), LAPLACE), 40, 30);
+        BufferedImage actual = ImageIO.read(new File(output, "first-laplace.png"));
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 40; x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    private static BufferedImage writeRandomImage(File file, int width, int height) throws IOException {
+        Random random = new Random(file.getName().hashCode());
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ImageIO.write(image, "png", file);
+        return image;
+    }
+}
@@ -0,0 +1,45 @@
+package digit.recogniser.convolution;
+
+import org.junit.Test;
+
+import ramo.klevis.EdgeDetection;
+import ramo.klevis.ImageRasters;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that convolving the summed channels gives exactly the doubles of convolving the channels and adding
+ * them, for the filters of {@link EdgeDetection}.
+ */
+public class EdgeDetectionTest {
+
+    private static final double[][][] FILTERS = {
+            {{1, 0, -1}, {1, 0, -1}, {1, 0, -1}},
+            {{1, 1, 1}, {0, 0, 0}, {-1, -1, -1}},
+            {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}}};
+
+    @Test
+    public void fusedChannelsMatchTheChannelsConvolvedOneByOne() {
+        Random random = new Random(5);
+        for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR}) {
+            BufferedImage image = new BufferedImage(83, 61, type);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            double[][] channels = ImageRasters.readChannels(image);
+            double[][] fused = {ImageRasters.readChannelSum(image)};
+            for (double[][] filter : FILTERS) {
+                double[] expected = EdgeDetection.applyConvolution(83, 61, channels, filter);
+                double[] actual = EdgeDetection.applyConvolution(83, 61, fused, filter);
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i], actual[i], 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package digit.recogniser.convolution;
+
+import org.junit.Test;
+
+import ramo.klevis.Convolution;
+import ramo.klevis.FlatConvolution;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Compares the flat convolutions with the 2D ones of {@link Convolution} on a random image.
+ */
+public class FlatConvolutionTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    private final Random random = new Random(7);
+
+    private double[][] randomImage() {
+        double[][] image = new double[HEIGHT][WIDTH];
+        for (double[] row : image) {
+            for (int x = 0; x < WIDTH; x++) {
+                row[x] = random.nextInt(256);
+            }
+        }
+        return image;
+    }
+
+    private static double[] flatten(double[][] image) {
+        double[] flat = new double[image.length * image[0].length];
+        for (int y = 0; y < image.length; y++) {
+            System.arraycopy(image[y], 0, flat, y * image[0].length, image[0].length);
+        }
+        return flat;
+    }
+
+    @Test
+    public void paddedConvolutionGivesTheSameDoublesAsTheTwoDimensionalOne() {
+        double[][] image = randomImage();
+        // 3 and 5 take the unrolled kernels, 4 and 7 the general loop
+        for (int size : new int[]{3, 4, 5, 7}) {
+            double[][] kernel = new double[size][size];
+            for (double[] row : kernel) {
+                for (int j = 0; j < size; j++) {
+                    row[j] = random.nextGaussian();
+                }
+            }
+            // the 2D version indexes [row][column], so it gets the height as its width
+            double[][] expected = Convolution.convolution2DPadded(image, HEIGHT, WIDTH, kernel, size, size);
+            double[] actual = new double[WIDTH * HEIGHT];
+            FlatConvolution.convolvePadded(flatten(image), WIDTH, HEIGHT, FlatConvolution.flatten(kernel),
+                    size, size, actual);
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertEquals(expected[y][x], actual[y * WIDTH + x], 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void twoDimensionalConvolutionAddsLikeTheSinglePixelOne() {
+        double[][] image = randomImage();
+        double[][] kernel = new double[3][5];
+        for (double[] row : kernel) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        // with the vector backend on, convolution2D no longer goes through singlePixelConvolution
+        double[][] actual = Convolution.convolution2D(image, HEIGHT, WIDTH, kernel, 3, 5);
+        for (int x = 0; x < HEIGHT - 2; x++) {
+            for (int y = 0; y < WIDTH - 4; y++) {
+                assertEquals(Convolution.singlePixelConvolution(image, x, y, kernel, 3, 5), actual[x][y], 0);
+            }
+        }
+    }
+
+    @Test
+    public void separableSobelMatchesTheFullKernel() {
+        double[][] sobel = {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}};
+        double[] kernel = FlatConvolution.flatten(sobel);
+        double[][] separated = FlatConvolution.separate(kernel, 3, 3);
+        assertNotNull(separated);
+
+        double[] image = flatten(randomImage());
+        double[] expected = new double[WIDTH * HEIGHT];
+        FlatConvolution.convolvePadded(image, WIDTH, HEIGHT, kernel, 3, 3, expected);
+        double[] actual = new double[WIDTH * HEIGHT];
+        FlatConvolution.convolveSeparablePadded(image, WIDTH, HEIGHT, separated[0], separated[1],
+                new double[WIDTH * HEIGHT], actual);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], 0);
+        }
+    }
+
+    @Test
+    public void rejectsKernelsOfHigherRank() {
+        assertNull(FlatConvolution.separate(new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1}, 3, 3));
+    }
+}
@@ -0,0 +1,49 @@
+package digit.recogniser.convolution;
+
+import org.junit.Test;
+
+import ramo.klevis.FlatConvolution;
+import ramo.klevis.ParallelConvolution;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the tiled convolution of three channels gives exactly the sum of the channels convolved one after
+ * the other.
+ */
+public class ParallelConvolutionTest {
+
+    private static final int WIDTH = 211;
+    private static final int HEIGHT = 157;
+
+    @Test
+    public void tiledChannelSumMatchesSequentialConvolution() {
+        Random random = new Random(3);
+        double[][] channels = new double[3][WIDTH * HEIGHT];
+        for (double[] channel : channels) {
+            for (int i = 0; i < channel.length; i++) {
+                channel[i] = random.nextInt(256);
+            }
+        }
+        double[] kernel = new double[25];
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] = random.nextGaussian();
+        }
+
+        double[] expected = new double[WIDTH * HEIGHT];
+        double[] channelConv = new double[WIDTH * HEIGHT];
+        for (int channel = 0; channel < channels.length; channel++) {
+            FlatConvolution.convolvePadded(channels[channel], WIDTH, HEIGHT, kernel, 5, 5, channelConv);
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = channel == 0 ? channelConv[i] : expected[i] + channelConv[i];
+            }
+        }
+        double[] actual = new double[WIDTH * HEIGHT];
+        ParallelConvolution.convolvePadded(channels, WIDTH, HEIGHT, kernel, 5, 5, actual);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], 0);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package digit.recogniser.convolution;
+
+import org.junit.Test;
+
+import ramo.klevis.EdgeDetector;
+import ramo.klevis.FixedPointConvolution;
+import ramo.klevis.FlatConvolution;
+import ramo.klevis.FloatConvolution;
+import ramo.klevis.Precision;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounds the difference of the float and fixed point convolutions to the double one.
+ */
+public class ReducedPrecisionTest {
+
+    private static final int WIDTH = 67;
+    private static final int HEIGHT = 45;
+
+    private static final double[][][] FILTERS = {
+            {{1, 0, -1}, {1, 0, -1}, {1, 0, -1}},
+            {{1, 1, 1}, {0, 0, 0}, {-1, -1, -1}},
+            {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}}};
+
+    private final Random random = new Random(13);
+
+    private double[] randomPlane() {
+        double[] plane = new double[WIDTH * HEIGHT];
+        for (int i = 0; i < plane.length; i++) {
+            plane[i] = random.nextInt(766);
+        }
+        return plane;
+    }
+
+    @Test
+    public void floatSumsStayWithinTheRoundingOfTheDoubleOnes() {
+        double[] plane = randomPlane();
+        double[] kernel = new double[25];
+        double weight = 0;
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] = random.nextGaussian();
+            weight += Math.abs(kernel[i]);
+        }
+        double[] expected = new double[plane.length];
+        FlatConvolution.convolvePadded(plane, WIDTH, HEIGHT, kernel, 5, 5, expected);
+        float[] actual = new float[plane.length];
+        FloatConvolution.convolvePadded(FloatConvolution.toFloats(plane), WIDTH, HEIGHT,
+                FloatConvolution.toFloats(kernel), 5, 5, actual);
+        // 25 roundings of float, each relative to at most the sum of the absolute products
+        double bound = 26 * Math.ulp(1f) * weight * 765;
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], bound);
+        }
+    }
+
+    @Test
+    public void fixedPointSumsOfIntegerKernelsAreExact() {
+        double[] plane = randomPlane();
+        short[] shorts = new short[plane.length];
+        for (int i = 0; i < plane.length; i++) {
+            shorts[i] = (short) plane[i];
+        }
+        for (double[][] filter : FILTERS) {
+            double[] kernel = FlatConvolution.flatten(filter);
+            double[] expected = new double[plane.length];
+            FlatConvolution.convolvePadded(plane, WIDTH, HEIGHT, kernel, 3, 3, expected);
+            int[] actual = new int[plane.length];
+            FixedPointConvolution.convolvePadded(shorts, WIDTH, HEIGHT, FixedPointConvolution.toFixedPoint(kernel),
+                    3, 3, actual);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], 0);
+            }
+        }
+    }
+
+    @Test
+    public void rejectsKernelsThatAreNotIntegers() {
+        assertNull(FixedPointConvolution.toFixedPoint(new double[]{0.5, 1, 0.5}));
+        assertNull(FixedPointConvolution.toFixedPoint(new double[]{70000, 0, -70000}));
+    }
+
+    @Test
+    public void edgeImagesAgreeInEveryPrecision() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        double[][] blur = {{0.1, 0.2, 0.1}, {0.2, -1.3, 0.2}, {0.1, 0.2, 0.1}};
+        EdgeDetector reference = new EdgeDetector(image, Precision.DOUBLE);
+        for (Precision precision : new Precision[]{Precision.FLOAT, Precision.FIXED}) {
+            EdgeDetector detector = new EdgeDetector(image, precision);
+            for (double[][] filter : FILTERS) {
+                BufferedImage expected = reference.detect(filter);
+                BufferedImage actual = detector.detect(filter);
+                for (int y = 0; y < HEIGHT; y++) {
+                    for (int x = 0; x < WIDTH; x++) {
+                        assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+                    }
+                }
+            }
+            // a kernel of fractions can round to the next gray level, never further
+            BufferedImage expected = reference.detect(blur);
+            BufferedImage actual = detector.detect(blur);
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertTrue(Math.abs((expected.getRGB(x, y) & 0xFF) - (actual.getRGB(x, y) & 0xFF)) <= 1);
+                }
+            }
+        }
+    }
+}
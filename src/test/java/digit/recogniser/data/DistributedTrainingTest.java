@@ -0,0 +1,94 @@
+package digit.recogniser.data;
+
+import org.apache.spark.ml.classification.MultilayerPerceptronClassificationModel;
+import org.apache.spark.ml.classification.MultilayerPerceptronClassifier;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ramo.klevis.NeuralNetwork;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Reads generated IDX files into partitions that stream their own record ranges, on two local threads and on a
+ * local-cluster master of two executors that also trains the perceptron. Spark starts the executors of the
+ * cluster with the scripts of SPARK_HOME, so only that test is skipped without it.
+ */
+public class DistributedTrainingTest {
+
+    private static final int IMAGES = 200;
+    private static final int IMAGE_SIZE = 28 * 28;
+    private static final int PARTITIONS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File images;
+    private File labels;
+    private SparkSession sparkSession;
+
+    @Before
+    public void writeDataSet() throws IOException {
+        images = folder.newFile("images.idx3-ubyte");
+        labels = folder.newFile("labels.idx1-ubyte");
+        // a bright column per digit, so the digits can be told apart
+        IdxFiles.writeImages(images, IMAGES, (i, p) -> p % 28 == 4 + 2 * (i % 10) ? 255 : 0);
+        IdxFiles.writeLabels(labels, IMAGES);
+    }
+
+    @After
+    public void stopSpark() {
+        if (sparkSession != null) {
+            sparkSession.stop();
+        }
+    }
+
+    private Dataset<Row> readRecordRanges() {
+        Dataset<Row> train = NeuralNetwork.labeledImages(sparkSession, images.getPath(), labels.getPath(), IMAGES,
+                PARTITIONS);
+        assertEquals(PARTITIONS, train.rdd().getNumPartitions());
+        assertEquals(IMAGES, train.count());
+        assertEquals(IMAGES / 10, train.filter("label = 3").count());
+        return train;
+    }
+
+    @Test
+    public void partitionsReadTheirOwnRecordRanges() {
+        sparkSession = SparkSession.builder()
+                .master("local[2]")
+                .appName("DistributedTrainingTest")
+                .getOrCreate();
+        readRecordRanges();
+    }
+
+    @Test
+    public void executorsReadTheirOwnRecordRangesAndTrain() {
+        assumeTrue(System.getenv("SPARK_HOME") != null);
+        sparkSession = SparkSession.builder()
+                .master("local-cluster[2,1,1024]")
+                .appName("DistributedTrainingTest")
+                .config("spark.executor.extraClassPath", System.getProperty("java.class.path"))
+                .getOrCreate();
+        Dataset<Row> train = readRecordRanges();
+
+        MultilayerPerceptronClassificationModel model = new MultilayerPerceptronClassifier()
+                .setLayers(new int[]{IMAGE_SIZE, 16, 10})
+                .setSeed(1234L)
+                .setMaxIter(50)
+                .fit(train);
+        assertArrayEquals(new int[]{IMAGE_SIZE, 16, 10}, model.layers());
+        assertTrue(model.transform(train).filter("prediction = label").count() > IMAGES * 0.9);
+    }
+}
@@ -0,0 +1,133 @@
+package digit.recogniser.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import ramo.klevis.IdxDataSetIterator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Iterates over a small generated data set whose first pixel is the index of its image, so the order of the
+ * records can be read back from the minibatches.
+ */
+public class IdxDataSetIteratorTest {
+
+    private static final int IMAGES = 10;
+    private static final int IMAGE_SIZE = IdxFiles.ROWS * IdxFiles.COLUMNS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File images;
+    private File labels;
+
+    @Before
+    public void writeDataSet() throws IOException {
+        images = folder.newFile("images.idx3-ubyte");
+        labels = folder.newFile("labels.idx1-ubyte");
+        IdxFiles.writeImages(images, IMAGES, IdxDataSetIteratorTest::pixel);
+        IdxFiles.writeLabels(labels, IMAGES);
+    }
+
+    private static int pixel(int image, int offset) {
+        return offset == 0 ? image : (image * 31 + offset) & 0xFF;
+    }
+
+    private IdxDataSetIterator open(int batchSize, boolean shuffle, long seed) throws IOException {
+        return IdxDataSetIterator.open(images.getPath(), labels.getPath(), batchSize, IMAGES, shuffle, seed);
+    }
+
+    /**
+     * @return index of every image of an epoch, in the order of the minibatches
+     */
+    private static int[] epoch(IdxDataSetIterator iterator) {
+        List<Integer> order = new ArrayList<>();
+        while (iterator.hasNext()) {
+            INDArray features = iterator.next().getFeatures();
+            for (int r = 0; r < features.rows(); r++) {
+                order.add(Math.round(features.getFloat(r, 0) * 255));
+            }
+        }
+        return order.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void scalesPixelsAndEncodesLabelsOneHot() throws IOException {
+        try (IdxDataSetIterator iterator = open(4, false, 1)) {
+            DataSet batch = iterator.next();
+            INDArray features = batch.getFeatures();
+            INDArray oneHot = batch.getLabels();
+            assertEquals(4, features.rows());
+            assertEquals(IMAGE_SIZE, features.columns());
+            assertEquals(10, oneHot.columns());
+            for (int r = 0; r < 4; r++) {
+                for (int p = 0; p < IMAGE_SIZE; p++) {
+                    float value = features.getFloat(r, p);
+                    assertEquals(pixel(r, p) / 255f, value, 1e-6f);
+                    assertTrue(value >= 0 && value <= 1);
+                }
+                for (int digit = 0; digit < 10; digit++) {
+                    assertEquals(digit == r % 10 ? 1f : 0f, oneHot.getFloat(r, digit), 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void returnsTheLastPartialMinibatch() throws IOException {
+        try (IdxDataSetIterator iterator = open(4, false, 1)) {
+            assertEquals(4, iterator.next().numExamples());
+            assertEquals(4, iterator.next().numExamples());
+            assertTrue(iterator.hasNext());
+            assertEquals(2, iterator.next().numExamples());
+            assertEquals(IMAGES, iterator.cursor());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void shufflesEveryEpochInTheSameOrderForTheSameSeed() throws IOException {
+        try (IdxDataSetIterator first = open(3, true, 42);
+             IdxDataSetIterator second = open(3, true, 42)) {
+            for (int epoch = 0; epoch < 3; epoch++) {
+                first.reset();
+                second.reset();
+                int[] order = epoch(first);
+                assertArrayEquals(order, epoch(second));
+                int[] sorted = order.clone();
+                Arrays.sort(sorted);
+                assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, sorted);
+            }
+        }
+    }
+
+    @Test
+    public void closeStopsThePrefetchThread() throws IOException {
+        IdxDataSetIterator iterator = open(1, false, 1);
+        // the thread fills its queue and waits for room
+        iterator.next();
+        iterator.close();
+        assertFalse(iterator.hasNext());
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName().equals("idx-batch-prefetch") && thread.isAlive());
+        }
+
+        iterator.reset();
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, epoch(iterator));
+        iterator.close();
+    }
+}
@@ -0,0 +1,57 @@
+package digit.recogniser.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Writes small IDX data sets with the layout of MNIST: 28x28 images of unsigned bytes and labels cycling through
+ * the ten digits.
+ */
+final class IdxFiles {
+
+    static final int IMAGE_MAGIC_NUMBER = 2051;
+    static final int LABEL_MAGIC_NUMBER = 2049;
+    static final int ROWS = 28;
+    static final int COLUMNS = 28;
+
+    private IdxFiles() {
+    }
+
+    /**
+     * @param pixel value of an image and a pixel offset, of which the lowest byte is written
+     */
+    static void writeImages(File file, int magicNumber, int amount, IntBinaryOperator pixel) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(magicNumber);
+            out.writeInt(amount);
+            out.writeInt(ROWS);
+            out.writeInt(COLUMNS);
+            for (int i = 0; i < amount; i++) {
+                for (int p = 0; p < ROWS * COLUMNS; p++) {
+                    out.writeByte(pixel.applyAsInt(i, p));
+                }
+            }
+        }
+    }
+
+    static void writeImages(File file, int amount, IntBinaryOperator pixel) throws IOException {
+        writeImages(file, IMAGE_MAGIC_NUMBER, amount, pixel);
+    }
+
+    /**
+     * Labels image i with the digit i % 10.
+     */
+    static void writeLabels(File file, int amount) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(LABEL_MAGIC_NUMBER);
+            out.writeInt(amount);
+            for (int i = 0; i < amount; i++) {
+                out.writeByte(i % 10);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package digit.recogniser.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ramo.klevis.IdxRecordStream;
+import ramo.klevis.LabeledImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Streams a small generated data set in chunks that do not divide the amount of records.
+ */
+public class IdxRecordStreamTest {
+
+    private static final int IMAGES = 23;
+    private static final int IMAGE_SIZE = 28 * 28;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File images;
+    private File labels;
+
+    @Before
+    public void writeDataSet() throws IOException {
+        images = folder.newFile("images.idx3-ubyte");
+        labels = folder.newFile("labels.idx1-ubyte");
+        IdxFiles.writeImages(images, IMAGES, (i, p) -> i + p);
+        IdxFiles.writeLabels(labels, IMAGES);
+    }
+
+    @Test
+    public void streamsEveryRecordOfTheRangeInOrder() throws IOException {
+        try (IdxRecordStream stream = IdxRecordStream.open(images.getPath(), labels.getPath(), 3, 20, 5, 2)) {
+            int expected = 3;
+            while (stream.hasNext()) {
+                IdxRecordStream.Chunk chunk = stream.next();
+                assertEquals(expected, chunk.first());
+                for (int i = 0; i < chunk.count(); i++) {
+                    assertEquals((expected + i) % 10, chunk.label(i));
+                    assertEquals((expected + i + 7) & 0xFF, chunk.pixel(i, 7));
+                }
+                expected += chunk.count();
+            }
+            assertEquals(20, expected);
+            assertFalse(stream.hasNext());
+        }
+    }
+
+    @Test
+    public void throwsWhenTheFilesAreCutShortWhileStreaming() throws IOException {
+        try (IdxRecordStream stream = IdxRecordStream.open(images.getPath(), labels.getPath(), 4, 1)) {
+            // the reader is at most two chunks ahead, so the third one at the latest is read from the cut file
+            try (RandomAccessFile file = new RandomAccessFile(images, "rw")) {
+                file.setLength(16);
+            }
+            int chunks = 0;
+            try {
+                while (stream.hasNext()) {
+                    stream.next();
+                    chunks++;
+                }
+            } catch (UncheckedIOException e) {
+                assertTrue(chunks <= 2);
+                return;
+            }
+            throw new AssertionError("Expected the cut file to be reported");
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void doesNotWaitForRecordsAfterClosing() throws IOException {
+        IdxRecordStream stream = IdxRecordStream.open(images.getPath(), labels.getPath(), 4, 1);
+        stream.close();
+        stream.hasNext();
+    }
+
+    @Test
+    public void normalizesFeaturesLikeLabeledImages() throws IOException {
+        try (IdxRecordStream stream = IdxRecordStream.open(images.getPath(), labels.getPath(), 4, 1)) {
+            IdxRecordStream.Chunk chunk = stream.next();
+            double[] features = new double[IMAGE_SIZE];
+            for (int i = 0; i < chunk.count(); i++) {
+                chunk.normalizedFeatures(i, features);
+                byte[] pixels = Arrays.copyOfRange(chunk.pixels(), i * IMAGE_SIZE, (i + 1) * IMAGE_SIZE);
+                assertArrayEquals(new LabeledImage(chunk.label(i), pixels).getFEATURES().toArray(), features, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package digit.recogniser.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ramo.klevis.MappedIdxReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the mapped reader against a small generated data set with the same layout as MNIST.
+ */
+public class MappedIdxReaderTest {
+
+    private static final int IMAGES = 5;
+    private static final int ROWS = IdxFiles.ROWS;
+    private static final int COLUMNS = IdxFiles.COLUMNS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File images;
+    private File labels;
+
+    @Before
+    public void writeDataSet() throws IOException {
+        images = folder.newFile("images.idx3-ubyte");
+        labels = folder.newFile("labels.idx1-ubyte");
+        IdxFiles.writeImages(images, IMAGES, MappedIdxReaderTest::pixel);
+        IdxFiles.writeLabels(labels, IMAGES);
+    }
+
+    private static int pixel(int image, int offset) {
+        return (image * 31 + offset) & 0xFF;
+    }
+
+    @Test
+    public void readsHeaderAndRecords() throws IOException {
+        MappedIdxReader reader = MappedIdxReader.open(images.getPath(), labels.getPath());
+
+        assertEquals(IMAGES, reader.size());
+        assertEquals(ROWS, reader.rows());
+        assertEquals(COLUMNS, reader.columns());
+        for (int i = 0; i < IMAGES; i++) {
+            assertEquals(i, reader.label(i));
+            ByteBuffer view = reader.image(i);
+            assertEquals(ROWS * COLUMNS, view.remaining());
+            for (int p = 0; p < ROWS * COLUMNS; p++) {
+                assertEquals(pixel(i, p), view.get(p) & 0xFF);
+                assertEquals(pixel(i, p), reader.pixel(i, p));
+            }
+        }
+    }
+
+    @Test
+    public void bulkCopyMatchesViews() throws IOException {
+        MappedIdxReader reader = MappedIdxReader.open(images.getPath(), labels.getPath());
+        byte[] pixels = new byte[2 * ROWS * COLUMNS];
+        byte[] copiedLabels = new byte[2];
+
+        reader.copyImages(3, 2, pixels, 0);
+        reader.copyLabels(3, 2, copiedLabels, 0);
+
+        assertEquals(3, copiedLabels[0]);
+        assertEquals(4, copiedLabels[1]);
+        assertEquals(pixel(4, 10), pixels[ROWS * COLUMNS + 10] & 0xFF);
+
+        float[] scaled = new float[2 * ROWS * COLUMNS];
+        reader.scaledPixels(4, scaled, ROWS * COLUMNS);
+        assertEquals(pixel(4, 10) / 255f, scaled[ROWS * COLUMNS + 10], 0f);
+    }
+
+    @Test
+    public void rejectsWrongMagicNumber() throws IOException {
+        IdxFiles.writeImages(images, IdxFiles.LABEL_MAGIC_NUMBER, IMAGES, MappedIdxReaderTest::pixel);
+        try {
+            MappedIdxReader.open(images.getPath(), labels.getPath());
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("magic number"));
+            return;
+        }
+        throw new AssertionError("Expected the image header to be rejected");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMismatchedLabelCount() throws IOException {
+        IdxFiles.writeImages(images, IMAGES + 1, MappedIdxReaderTest::pixel);
+        MappedIdxReader.open(images.getPath(), labels.getPath());
+    }
+}
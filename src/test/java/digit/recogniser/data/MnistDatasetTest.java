@@ -0,0 +1,83 @@
+package digit.recogniser.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ramo.klevis.MappedIdxReader;
+import ramo.klevis.MnistDataset;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Copies a small generated data set into heap and direct buffers and reads its rows back.
+ */
+public class MnistDatasetTest {
+
+    private static final int IMAGES = 12;
+    private static final int IMAGE_SIZE = IdxFiles.ROWS * IdxFiles.COLUMNS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MappedIdxReader reader;
+
+    @Before
+    public void writeDataSet() throws IOException {
+        File images = folder.newFile("images.idx3-ubyte");
+        File labels = folder.newFile("labels.idx1-ubyte");
+        IdxFiles.writeImages(images, IMAGES, MnistDatasetTest::pixel);
+        IdxFiles.writeLabels(labels, IMAGES);
+        reader = MappedIdxReader.open(images.getPath(), labels.getPath());
+    }
+
+    private static int pixel(int image, int offset) {
+        return (image * 57 + offset * 3) & 0xFF;
+    }
+
+    private static void assertRows(MnistDataset dataset, int size) {
+        assertEquals(size, dataset.size());
+        assertEquals(IMAGE_SIZE, dataset.imageSize());
+        float[] scaled = new float[IMAGE_SIZE + 5];
+        for (int i = 0; i < size; i++) {
+            assertEquals(i % 10, dataset.label(i));
+            dataset.scaledPixels(i, scaled, 5);
+            for (int p = 0; p < IMAGE_SIZE; p++) {
+                assertEquals(pixel(i, p), dataset.pixel(i, p));
+                assertEquals(pixel(i, p) / 255f, scaled[5 + p], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void keepsRowsOnHeap() {
+        MnistDataset dataset = MnistDataset.copyOf(reader, IMAGES, false);
+        assertTrue(dataset.toString().contains("offHeap=false"));
+        assertRows(dataset, IMAGES);
+    }
+
+    @Test
+    public void keepsRowsOffHeap() {
+        MnistDataset dataset = MnistDataset.copyOf(reader, IMAGES - 2, true);
+        assertTrue(dataset.toString().contains("offHeap=true"));
+        assertRows(dataset, IMAGES - 2);
+    }
+
+    @Test
+    public void copiesRangesIntoTheSameRows() {
+        MnistDataset dataset = MnistDataset.allocate(IMAGES, IMAGE_SIZE, true);
+        dataset.copyFrom(reader, 7, IMAGES - 7);
+        dataset.copyFrom(reader, 0, 7);
+        assertRows(dataset, IMAGES);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsRowsOutOfRange() {
+        MnistDataset.copyOf(reader, 3, false).scaledPixels(3, new float[IMAGE_SIZE], 0);
+    }
+}
@@ -0,0 +1,78 @@
+package digit.recogniser.image;
+
+import org.junit.Test;
+
+import ramo.klevis.ImageRasters;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the bulk raster reads and writes with getRGB and {@link Color} pixel by pixel.
+ */
+public class ImageRastersTest {
+
+    private static final int WIDTH = 29;
+    private static final int HEIGHT = 17;
+
+    private final Random random = new Random(11);
+
+    private BufferedImage randomImage(int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, 0xFF000000 | random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private static void assertChannelsOf(BufferedImage image) {
+        int width = image.getWidth();
+        double[][] channels = ImageRasters.readChannels(image);
+        double[] sum = ImageRasters.readChannelSum(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                Color color = new Color(image.getRGB(x, y));
+                assertEquals(color.getRed(), channels[0][y * width + x], 0);
+                assertEquals(color.getGreen(), channels[1][y * width + x], 0);
+                assertEquals(color.getBlue(), channels[2][y * width + x], 0);
+                assertEquals(color.getRed() + color.getGreen() + color.getBlue(), sum[y * width + x], 0);
+            }
+        }
+    }
+
+    @Test
+    public void readsTheChannelsGetRgbGives() {
+        // packed ints, interleaved bytes and a type going through the color model
+        for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR,
+                BufferedImage.TYPE_USHORT_565_RGB}) {
+            assertChannelsOf(randomImage(type));
+        }
+    }
+
+    @Test
+    public void readsSubimagesSharingTheRaster() {
+        assertChannelsOf(randomImage(BufferedImage.TYPE_3BYTE_BGR).getSubimage(3, 2, 20, 11));
+        assertChannelsOf(randomImage(BufferedImage.TYPE_INT_RGB).getSubimage(5, 1, 13, 9));
+    }
+
+    @Test
+    public void writesGrayPixelsLikeColor() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = ImageRasters.gray(i % 256);
+            assertEquals(new Color(i % 256, i % 256, i % 256).getRGB(), pixels[i]);
+        }
+        BufferedImage image = ImageRasters.toImage(pixels, WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(pixels[y * WIDTH + x], image.getRGB(x, y));
+            }
+        }
+    }
+}
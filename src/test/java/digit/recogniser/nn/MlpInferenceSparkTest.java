@@ -0,0 +1,61 @@
+package digit.recogniser.nn;
+
+import org.apache.spark.ml.classification.MultilayerPerceptronClassificationModel;
+import org.apache.spark.ml.linalg.Vector;
+import org.apache.spark.sql.SparkSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ramo.klevis.LabeledImage;
+import ramo.klevis.MlpInference;
+import ramo.klevis.Prediction;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the plain Java perceptron against the trained model of ModelWith60000 loaded and run by Spark, so the
+ * layout of the weights is not only checked against assumptions of the same code.
+ */
+public class MlpInferenceSparkTest {
+
+    private static final String TRAINED_MODEL = "resources/nnTrainedModels/ModelWith60000";
+    private static final int IMAGES = 64;
+
+    private SparkSession sparkSession;
+
+    @Before
+    public void startSpark() {
+        sparkSession = SparkSession.builder()
+                .master("local[1]")
+                .appName("MlpInferenceSparkTest")
+                .getOrCreate();
+    }
+
+    @After
+    public void stopSpark() {
+        sparkSession.stop();
+    }
+
+    @Test
+    public void predictsLikeTheModelLoadedBySpark() {
+        MultilayerPerceptronClassificationModel model = MultilayerPerceptronClassificationModel.load(TRAINED_MODEL);
+        MlpInference inference = new MlpInference(model.layers(), model.weights().toArray());
+        Random random = new Random(21);
+        for (int i = 0; i < IMAGES; i++) {
+            double[] pixels = MlpInferenceTest.randomImage(random);
+            Vector features = new LabeledImage(0, pixels).getFEATURES();
+            Prediction prediction = inference.predict(pixels);
+
+            assertEquals("image " + i, model.predict(features), prediction.getLabel(), 0);
+            // Spark 2.2 has no probability column yet, its feed forward model returns the softmax outputs
+            double[] expected = model.mlpModel().predict(features).toArray();
+            for (int digit = 0; digit < expected.length; digit++) {
+                assertEquals("image " + i + ", digit " + digit, expected[digit],
+                        prediction.getProbabilities()[digit], 1e-5);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package digit.recogniser.nn;
+
+import org.junit.Test;
+
+import ramo.klevis.MlpInference;
+import ramo.klevis.Prediction;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the plain Java perceptron against the layers computed one by one from the weight vector of Spark.
+ */
+public class MlpInferenceTest {
+
+    private static final int[] LAYERS = {784, 128, 64, 10};
+
+    /* forward pass straight from the layout of the weights, each layer an outputs x inputs matrix in column major */
+    private static double[] reference(double[] weights, double[] pixels) {
+        double min = Double.MAX_VALUE, max = Double.MIN_VALUE, sum = 0;
+        for (double pixel : pixels) {
+            sum += pixel;
+            min = Math.min(min, pixel);
+            max = Math.max(max, pixel);
+        }
+        double[] activations = new double[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            activations[i] = (pixels[i] - sum / pixels.length) / (max - min);
+        }
+        int offset = 0;
+        for (int layer = 1; layer < LAYERS.length; layer++) {
+            int inputs = LAYERS[layer - 1], outputs = LAYERS[layer];
+            double[] next = new double[outputs];
+            for (int o = 0; o < outputs; o++) {
+                double z = weights[offset + inputs * outputs + o];
+                for (int i = 0; i < inputs; i++) {
+                    z += weights[offset + i * outputs + o] * activations[i];
+                }
+                next[o] = layer + 1 == LAYERS.length ? z : 1 / (1 + Math.exp(-z));
+            }
+            offset += (inputs + 1) * outputs;
+            activations = next;
+        }
+        double total = 0;
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] = Math.exp(activations[i]);
+            total += activations[i];
+        }
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] /= total;
+        }
+        return activations;
+    }
+
+    private static double[] randomWeights(Random random) {
+        double[] weights = new double[MlpInference.parameterCount(LAYERS)];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextGaussian() * 0.2;
+        }
+        return weights;
+    }
+
+    static double[] randomImage(Random random) {
+        double[] pixels = new double[784];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(4) == 0 ? random.nextInt(256) : 0;
+        }
+        return pixels;
+    }
+
+    @Test
+    public void forwardPassMatchesTheLayersComputedOneByOne() {
+        Random random = new Random(2);
+        double[] weights = randomWeights(random);
+        MlpInference inference = new MlpInference(LAYERS, weights);
+        for (int image = 0; image < 5; image++) {
+            double[] pixels = randomImage(random);
+            double[] expected = reference(weights, pixels);
+            Prediction prediction = inference.predict(pixels);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], prediction.getProbabilities()[i], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void batchesPredictLikeSingleImages() {
+        Random random = new Random(8);
+        MlpInference inference = new MlpInference(LAYERS, randomWeights(random));
+        int batchSize = 43;
+        double[] input = new double[batchSize * 784];
+        double[][] images = new double[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            images[i] = randomImage(random);
+            System.arraycopy(images[i], 0, input, i * 784, 784);
+        }
+        double[] unchanged = input.clone();
+        List<Prediction> predictions = inference.predictBatch(input, batchSize);
+        assertEquals(batchSize, predictions.size());
+        for (int i = 0; i < batchSize; i++) {
+            assertArrayEquals(inference.predict(images[i]).getProbabilities(),
+                    predictions.get(i).getProbabilities(), 0f);
+        }
+        assertArrayEquals(unchanged, input, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWeightsOfOtherLayers() {
+        new MlpInference(LAYERS, new double[MlpInference.parameterCount(LAYERS) - 1]);
+    }
+}
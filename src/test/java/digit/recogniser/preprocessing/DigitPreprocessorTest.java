@@ -0,0 +1,76 @@
+package digit.recogniser.preprocessing;
+
+import org.junit.Test;
+
+import ramo.klevis.DigitPreprocessor;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Draws a digit in a corner of a large canvas and checks that centering fits and centers it like MNIST.
+ */
+public class DigitPreprocessorTest {
+
+    private static BufferedImage canvasWithBar(int x, int y, int width, int height) {
+        BufferedImage canvas = new BufferedImage(500, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = canvas.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(x, y, width, height);
+        graphics.dispose();
+        return canvas;
+    }
+
+    @Test
+    public void centersTheDigitByItsCenterOfMass() {
+        // a tall bar, like a 1, in the top left corner
+        float[] pixels = new DigitPreprocessor(true).process(canvasWithBar(10, 20, 40, 200), new float[784]);
+
+        double mass = 0;
+        double massX = 0;
+        double massY = 0;
+        int top = 28;
+        int bottom = -1;
+        for (int y = 0; y < 28; y++) {
+            for (int x = 0; x < 28; x++) {
+                float ink = pixels[y * 28 + x];
+                assertTrue(ink >= 0 && ink <= 255);
+                mass += ink;
+                massX += ink * x;
+                massY += ink * y;
+                if (ink > 128) {
+                    top = Math.min(top, y);
+                    bottom = Math.max(bottom, y);
+                }
+            }
+        }
+        assertEquals(13.5, massX / mass, 0.6);
+        assertEquals(13.5, massY / mass, 0.6);
+        // the longer side is fitted to 20 pixels
+        assertEquals(20, bottom - top + 1, 1);
+    }
+
+    @Test
+    public void leavesAnEmptyCanvasEmpty() {
+        float[] pixels = new float[784];
+        pixels[0] = 42;
+        new DigitPreprocessor(true).process(canvasWithBar(0, 0, 0, 0), pixels);
+        for (float pixel : pixels) {
+            assertEquals(0, pixel, 0);
+        }
+    }
+
+    @Test
+    public void squeezesTheWholeCanvasWithoutCentering() {
+        // the bar covers the left tenth of the canvas
+        float[] pixels = new DigitPreprocessor().process(canvasWithBar(0, 0, 50, 400), new float[784]);
+        assertTrue(pixels[14 * 28] > 240);
+        assertEquals(0, pixels[14 * 28 + 20], 1);
+    }
+}
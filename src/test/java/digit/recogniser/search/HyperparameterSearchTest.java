@@ -0,0 +1,139 @@
+package digit.recogniser.search;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ramo.klevis.HyperParameters;
+import ramo.klevis.HyperparameterSearch;
+import ramo.klevis.HyperparameterSearch.Status;
+import ramo.klevis.HyperparameterSearch.TrialResult;
+import ramo.klevis.HyperparameterSpace;
+import ramo.klevis.TrialTrainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the search strategies on a made up trainer whose accuracy grows with the first hidden layer and the rounds.
+ */
+public class HyperparameterSearchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger roundsTrained = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private TrialTrainer trainer(long spinNanosPerRound) {
+        return parameters -> {
+            open.incrementAndGet();
+            return new TrialTrainer.Trial() {
+                private int rounds;
+
+                @Override
+                public double train(int more) {
+                    for (long start = System.nanoTime(); System.nanoTime() - start < spinNanosPerRound * more; ) {
+                        Thread.onSpinWait();
+                    }
+                    rounds += more;
+                    roundsTrained.addAndGet(more);
+                    return 1 - 1d / (1 + parameters.getHiddenLayers()[0] * rounds);
+                }
+
+                @Override
+                public long parameterBytes() {
+                    return parameters.getHiddenLayers()[0] * 1000L;
+                }
+
+                @Override
+                public void close() {
+                    open.decrementAndGet();
+                }
+            };
+        };
+    }
+
+    private static List<HyperParameters> candidates(int... hidden) {
+        List<HyperParameters> candidates = new ArrayList<>();
+        for (int size : hidden) {
+            candidates.add(new HyperParameters(new int[]{size}, 0.01, 64));
+        }
+        return candidates;
+    }
+
+    @Test
+    public void halvingContinuesTheBetterHalf() throws InterruptedException {
+        List<TrialResult> results = new HyperparameterSearch(trainer(0), 3, 0, 1, 4)
+                .run(HyperparameterSearch.Strategy.HALVING, candidates(2, 8, 1, 4));
+        // rungs of 1, 2 and 4 rounds: 4 trials, then 2, then 1
+        assertEquals(4 + 2 * 1 + 2, roundsTrained.get());
+        assertEquals(Status.COMPLETED, results.get(1).getStatus());
+        assertEquals(4, results.get(1).getRounds());
+        assertEquals(Status.STOPPED, results.get(3).getStatus());
+        assertEquals(2, results.get(3).getRounds());
+        assertEquals(Status.STOPPED, results.get(0).getStatus());
+        assertEquals(1, results.get(0).getRounds());
+        assertEquals(0, open.get());
+    }
+
+    @Test
+    public void gridStopsTrialsBelowTheMedianOfTheOthers() throws InterruptedException {
+        List<TrialResult> results = new HyperparameterSearch(trainer(0), 1, 0, 1, 4)
+                .run(HyperparameterSearch.Strategy.GRID, candidates(8, 4, 1, 16));
+        assertEquals(Status.COMPLETED, results.get(0).getStatus());
+        assertEquals(Status.COMPLETED, results.get(1).getStatus());
+        assertEquals(Status.STOPPED, results.get(2).getStatus());
+        assertEquals(1, results.get(2).getRounds());
+        assertEquals(Status.COMPLETED, results.get(3).getStatus());
+        assertEquals(4, results.get(3).getRounds());
+        assertEquals(0, open.get());
+    }
+
+    @Test
+    public void stopsOnceTheCpuBudgetIsSpent() throws InterruptedException {
+        List<TrialResult> results = new HyperparameterSearch(trainer(20_000_000L), 1, 0.1, 1, 64)
+                .run(HyperparameterSearch.Strategy.GRID, candidates(1, 2, 3, 4));
+        assertTrue(roundsTrained.get() < 4 * 64);
+        assertEquals(Status.OVER_BUDGET, results.get(3).getStatus());
+        assertEquals(0, open.get());
+    }
+
+    @Test
+    public void writesResultsAndPicksTheSmallestModelReachingTheTarget() throws Exception {
+        List<HyperParameters> grid = HyperparameterSpace.parse("64, 32-16", "0.01,0.1", "64").grid();
+        assertEquals(4, grid.size());
+        List<TrialResult> results = new HyperparameterSearch(trainer(0), 2, 0, 2, 2)
+                .run(HyperparameterSearch.Strategy.GRID, grid);
+        File csv = new File(folder.getRoot(), "results/search.csv");
+        HyperparameterSearch.writeCsv(results, csv);
+        List<String> lines = Files.readAllLines(csv.toPath());
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(3).startsWith("2,32-16,0.01,64,2,0.9846,"));
+
+        assertEquals(32, HyperparameterSearch.cheapest(results, 0.98).getParameters().getHiddenLayers()[0]);
+        assertEquals(64, HyperparameterSearch.cheapest(results, 0.99).getParameters().getHiddenLayers()[0]);
+        assertEquals(null, HyperparameterSearch.cheapest(results, 0.999));
+        assertEquals(3, new HashSet<>(HyperparameterSpace.parse("64, 32-16", "0.01,0.1", "64").random(3, 1)).size());
+    }
+
+    @Test
+    public void parsesTheHyperparametersOfOneTrial() {
+        assertEquals(new HyperParameters(new int[]{128, 64}, 0.01, 64), HyperParameters.parse("128-64", "0.01", "64"));
+        assertEquals(HyperparameterSpace.parse("32-16", "0.1", "128").grid().get(0),
+                HyperParameters.parse(" 32 - 16 ", " 0.1", "128 "));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsSeveralValuesForOneTrial() {
+        HyperParameters.parse("128-64,64", "0.01", "64");
+    }
+}
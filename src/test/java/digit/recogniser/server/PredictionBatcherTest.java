@@ -0,0 +1,175 @@
+package digit.recogniser.server;
+
+import org.junit.Test;
+
+import ramo.klevis.Prediction;
+import ramo.klevis.PredictionBatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that requests are combined into batches and every caller gets its own prediction back.
+ */
+public class PredictionBatcherTest {
+
+    /* predicts the value of the first pixel as the digit */
+    private static List<Prediction> firstPixel(float[][] images) {
+        List<Prediction> predictions = new ArrayList<>();
+        for (float[] image : images) {
+            float[] probabilities = new float[10];
+            probabilities[(int) image[0]] = 1f;
+            predictions.add(Prediction.of(probabilities));
+        }
+        return predictions;
+    }
+
+    private static float[] image(int digit) {
+        float[] pixels = new float[784];
+        pixels[0] = digit;
+        return pixels;
+    }
+
+    @Test
+    public void combinesWaitingRequestsIntoOneBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        try (PredictionBatcher batcher = new PredictionBatcher(images -> {
+            batchSizes.add(images.length);
+            firstBatchStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return firstPixel(images);
+        }, 8, 1000, 64)) {
+            CompletableFuture<Prediction> first = batcher.submit(image(9));
+            assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+
+            // these wait in the queue while the first batch is still running
+            List<CompletableFuture<Prediction>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(batcher.submit(image(i)));
+            }
+            assertEquals(10, batcher.queueDepth());
+            release.countDown();
+
+            assertEquals(9, first.get(5, TimeUnit.SECONDS).getLabel());
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).getLabel());
+            }
+            assertEquals(1, (int) batchSizes.get(0));
+            assertEquals(8, (int) batchSizes.get(1));
+            assertEquals(2, (int) batchSizes.get(2));
+            assertEquals(11, batcher.images());
+        }
+    }
+
+    @Test
+    public void failsEveryRequestOfAFailedBatch() throws Exception {
+        try (PredictionBatcher batcher = new PredictionBatcher(images -> {
+            throw new IllegalStateException("model not loaded");
+        }, 4, 100, 64)) {
+            try {
+                batcher.submit(image(1)).get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                return;
+            }
+            throw new AssertionError("Expected the prediction to fail");
+        }
+    }
+
+    @Test
+    public void keepsDispatchingAfterAnError() throws Exception {
+        try (PredictionBatcher batcher = new PredictionBatcher(images -> {
+            if (images[0][0] == 0) {
+                throw new OutOfMemoryError("no room for activations");
+            }
+            return firstPixel(images);
+        }, 1, 100, 64)) {
+            try {
+                batcher.submit(image(0)).get(5, TimeUnit.SECONDS);
+                throw new AssertionError("Expected the prediction to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof OutOfMemoryError);
+            }
+            assertEquals(7, batcher.submit(image(7)).get(5, TimeUnit.SECONDS).getLabel());
+        }
+    }
+
+    @Test
+    public void rejectsRequestsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (PredictionBatcher batcher = new PredictionBatcher(images -> {
+            firstBatchStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return firstPixel(images);
+        }, 1, 100, 2)) {
+            CompletableFuture<Prediction> running = batcher.submit(image(1));
+            assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Prediction> second = batcher.submit(image(2));
+            CompletableFuture<Prediction> third = batcher.submit(image(3));
+            CompletableFuture<Prediction> rejected = batcher.submit(image(4));
+            try {
+                rejected.get(5, TimeUnit.SECONDS);
+                throw new AssertionError("Expected the request to be rejected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            release.countDown();
+
+            assertEquals(1, running.get(5, TimeUnit.SECONDS).getLabel());
+            assertEquals(2, second.get(5, TimeUnit.SECONDS).getLabel());
+            assertEquals(3, third.get(5, TimeUnit.SECONDS).getLabel());
+        }
+    }
+
+    @Test
+    public void leavesCancelledRequestsOutOfTheBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        try (PredictionBatcher batcher = new PredictionBatcher(images -> {
+            batchSizes.add(images.length);
+            firstBatchStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return firstPixel(images);
+        }, 8, 1000, 64)) {
+            CompletableFuture<Prediction> first = batcher.submit(image(9));
+            assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Prediction> cancelled = batcher.submit(image(1));
+            CompletableFuture<Prediction> kept = batcher.submit(image(2));
+            assertTrue(cancelled.cancel(false));
+            release.countDown();
+
+            assertEquals(9, first.get(5, TimeUnit.SECONDS).getLabel());
+            assertEquals(2, kept.get(5, TimeUnit.SECONDS).getLabel());
+            assertEquals(Integer.valueOf(1), batchSizes.get(1));
+            assertEquals(2, batcher.images());
+        }
+    }
+}
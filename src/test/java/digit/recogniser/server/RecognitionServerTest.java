@@ -0,0 +1,139 @@
+package digit.recogniser.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ramo.klevis.Prediction;
+import ramo.klevis.PredictionBatcher;
+import ramo.klevis.RecognitionServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Parses request bodies and answers real HTTP requests on an ephemeral port.
+ */
+public class RecognitionServerTest {
+
+    private PredictionBatcher batcher;
+    private RecognitionServer server;
+    private String lastResponse;
+
+    @Before
+    public void startServer() throws IOException {
+        // predicts the value of the first pixel as the digit
+        batcher = new PredictionBatcher(images -> {
+            List<Prediction> predictions = new ArrayList<>();
+            for (float[] image : images) {
+                float[] probabilities = new float[10];
+                probabilities[(int) image[0]] = 1f;
+                predictions.add(Prediction.of(probabilities));
+            }
+            return predictions;
+        }, 8, 100, 64);
+        server = new RecognitionServer(batcher, 0, 2, 5000);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    private static String body(int firstPixel, int values) {
+        String[] pixels = new String[values];
+        Arrays.fill(pixels, "0");
+        pixels[0] = String.valueOf(firstPixel);
+        return String.join(",", pixels);
+    }
+
+    private static void assertRejected(String body) {
+        try {
+            RecognitionServer.parsePixels(body);
+            fail("Expected " + body.substring(0, Math.min(body.length(), 20)) + "... to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+    }
+
+    @Test
+    public void parsesPixelsSeparatedByCommasOrWhitespace() {
+        float[] pixels = RecognitionServer.parsePixels(" " + body(255, 784).replace(",0,", " 0\n") + "\n");
+        assertEquals(784, pixels.length);
+        assertEquals(255f, pixels[0], 0f);
+        assertEquals(0f, pixels[783], 0f);
+    }
+
+    @Test
+    public void rejectsTheWrongAmountOfPixels() {
+        assertRejected(body(0, 783));
+        assertRejected(body(0, 785));
+        assertRejected("");
+    }
+
+    @Test
+    public void rejectsPixelsThatAreNotNumbersInRange() {
+        assertRejected(body(0, 784).replaceFirst("0", "NaN"));
+        assertRejected(body(0, 784).replaceFirst("0", "x"));
+        assertRejected(body(0, 784).replaceFirst("0", "-1"));
+        assertRejected(body(0, 784).replaceFirst("0", "255.5"));
+        assertRejected(body(0, 784).replaceFirst("0", "Infinity"));
+    }
+
+    @Test
+    public void answersPredictionsOverHttp() throws IOException {
+        assertEquals(200, post(body(7, 784)));
+        assertTrue(lastResponse.startsWith("{\"label\":7,\"probabilities\":[0.0,"));
+
+        assertEquals(400, post(body(7, 10)));
+        assertEquals(413, post(body(7, 784).replace(",", ",          ")));
+
+        HttpURLConnection get = open("/predict");
+        assertEquals(405, get.getResponseCode());
+
+        HttpURLConnection metrics = open("/metrics");
+        assertEquals(200, metrics.getResponseCode());
+        assertTrue(read(metrics.getInputStream()).contains("images_total 1\n"));
+    }
+
+    private int post(String body) throws IOException {
+        HttpURLConnection connection = open("/predict");
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.US_ASCII));
+        }
+        int status = connection.getResponseCode();
+        lastResponse = read(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+        return status;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = stream.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}